@@ -1,14 +1,21 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.entity.BulkImportResult;
 import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.SortBy;
-import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,13 +25,29 @@ public class FilmController {
 
     private final FilmService filmService;
 
-    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
 
     @GetMapping(value = "/films")
-    public List<Film> findAll() {
-        List<Film> films = filmService.getFilms();
-        log.trace("Кол-во фильмов: " + films.size());
-        return films;
+    public ResponseEntity<List<Film>> findAll(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<Film> films = filmService.getFilms();
+            log.trace("Кол-во фильмов: " + films.size());
+            return ResponseEntity.ok(films);
+        }
+        int pageSize = limit == null ? PageCursor.DEFAULT_LIMIT : limit;
+        List<Film> films = filmService.getFilms(PageCursor.decode(after), pageSize);
+        log.trace("Страница фильмов получена, кол-во: " + films.size());
+        return PageCursor.page(films, pageSize, Film::getId);
+    }
+
+    @GetMapping(value = "/films/stream", produces = NdjsonStreams.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilms() {
+        log.trace("Запрошена потоковая выгрузка фильмов");
+        return NdjsonStreams.body(objectMapper, filmService::streamFilms);
     }
 
     @GetMapping(value = "/films/{id}")
@@ -63,6 +86,23 @@ public class FilmController {
         return addedfilm;
     }
 
+    @PostMapping(value = "/films/bulk", consumes = NdjsonStreams.APPLICATION_NDJSON_VALUE)
+    public BulkImportResult addFilms(InputStream body) throws IOException {
+        BulkImportResult result = NdjsonStreams.read(body, objectMapper, validator, Film.class, filmService::addFilms);
+        log.trace("Импорт фильмов завершен, добавлено: " + result.getImported()
+                + ", ошибок: " + result.getErrors().size());
+        return result;
+    }
+
+    @PostMapping(value = "/films/likes/bulk", consumes = NdjsonStreams.APPLICATION_NDJSON_VALUE)
+    public BulkImportResult addLikes(InputStream body) throws IOException {
+        BulkImportResult result = NdjsonStreams.read(body, objectMapper, validator, FilmLikes.class,
+                filmService::addLikes);
+        log.trace("Импорт лайков завершен, обработано: " + result.getImported()
+                + ", ошибок: " + result.getErrors().size());
+        return result;
+    }
+
     @PutMapping(value = "/films")
     public Film updateFilm(@Valid @RequestBody Film film) {
         Film updadedFilm = filmService.updateFilm(film);
@@ -74,16 +114,18 @@ public class FilmController {
     public Film addLike(
             @PathVariable Long id,
             @PathVariable Long userId) {
-        log.trace("Пользователь: " + userService.getUser(userId) + " поставил лайк фильму: " + filmService.getFilm(id));
-        return filmService.addLike(id, userId);
+        Film film = filmService.addLike(id, userId);
+        log.trace("Пользователь c id={} поставил лайк фильму: {}", userId, film);
+        return film;
     }
 
     @DeleteMapping(value = "/films/{id}/like/{userId}")
     public Film deleteLike(
             @PathVariable Long id,
             @PathVariable Long userId) {
-        log.trace("Пользователь: " + userService.getUser(userId) + " удалил лайк фильму: " + filmService.getFilm(id));
-        return filmService.deleteLike(id, userId);
+        Film film = filmService.deleteLike(id, userId);
+        log.trace("Пользователь c id={} удалил лайк фильму: {}", userId, film);
+        return film;
     }
 
     @DeleteMapping(value = "/films/{filmId}")
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.entity.BulkImportResult;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+final class NdjsonStreams {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final int IMPORT_CHUNK_SIZE = 1000;
+
+    private NdjsonStreams() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> body(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                source.accept(item -> {
+                    try {
+                        writer.write(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            outputStream.write('\n');
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    static <T> BulkImportResult read(InputStream input, ObjectMapper objectMapper, Validator validator,
+                                     Class<T> type, Consumer<List<T>> writer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        List<BulkImportResult.RecordError> errors = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Integer> chunkLines = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        int imported = 0;
+        int lineNumber = 0;
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                T item;
+                try {
+                    item = reader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    errors.add(new BulkImportResult.RecordError(lineNumber, e.getOriginalMessage()));
+                    continue;
+                }
+                Set<ConstraintViolation<T>> violations = validator.validate(item);
+                if (!violations.isEmpty()) {
+                    errors.add(new BulkImportResult.RecordError(lineNumber, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining("; "))));
+                    continue;
+                }
+                chunk.add(item);
+                chunkLines.add(lineNumber);
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    imported += write(chunk, chunkLines, writer, errors);
+                    chunk.clear();
+                    chunkLines.clear();
+                }
+            }
+        }
+        imported += write(chunk, chunkLines, writer, errors);
+        return new BulkImportResult(imported, errors);
+    }
+
+    private static <T> int write(List<T> chunk, List<Integer> chunkLines, Consumer<List<T>> writer,
+                                 List<BulkImportResult.RecordError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        try {
+            writer.accept(chunk);
+            return chunk.size();
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                errors.add(new BulkImportResult.RecordError(chunkLines.get(0),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                return 0;
+            }
+        }
+        int written = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                writer.accept(List.of(chunk.get(i)));
+                written++;
+            } catch (RuntimeException e) {
+                errors.add(new BulkImportResult.RecordError(chunkLines.get(i),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+            }
+        }
+        return written;
+    }
+}
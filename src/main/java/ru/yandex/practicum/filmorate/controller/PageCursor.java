@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+final class PageCursor {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 100;
+
+    private static final String PREFIX = "id:";
+
+    private PageCursor() {
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IncorrectParameterException("after");
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectParameterException("after");
+        }
+    }
+
+    static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> items, int limit, ToLongFunction<T> idExtractor) {
+        if (items.size() < limit) {
+            return ResponseEntity.ok(items);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, encode(idExtractor.applyAsLong(items.get(items.size() - 1))))
+                .body(items);
+    }
+}
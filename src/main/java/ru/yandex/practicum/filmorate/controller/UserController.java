@@ -1,8 +1,12 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.entity.BulkImportResult;
 import ru.yandex.practicum.filmorate.entity.Event;
 import ru.yandex.practicum.filmorate.entity.film.Film;
 import ru.yandex.practicum.filmorate.entity.user.User;
@@ -10,6 +14,9 @@ import ru.yandex.practicum.filmorate.service.EventService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -18,6 +25,8 @@ import java.util.List;
 public class UserController {
     private final UserService userService;
     private final EventService eventService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @GetMapping(value = "/users/{id}")
     public User getUser(@PathVariable Long id) {
@@ -27,10 +36,31 @@ public class UserController {
     }
 
     @GetMapping(value = "/users")
-    public List<User> getUsers() {
-        List<User> users = userService.getUsers();
-        log.trace("Кол-во пользователей: " + userService.getUsers().size());
-        return users;
+    public ResponseEntity<List<User>> getUsers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<User> users = userService.getUsers();
+            log.trace("Кол-во пользователей: " + users.size());
+            return ResponseEntity.ok(users);
+        }
+        int pageSize = limit == null ? PageCursor.DEFAULT_LIMIT : limit;
+        List<User> users = userService.getUsers(PageCursor.decode(after), pageSize);
+        log.trace("Страница пользователей получена, кол-во: " + users.size());
+        return PageCursor.page(users, pageSize, User::getId);
+    }
+
+    @GetMapping(value = "/users/stream", produces = NdjsonStreams.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        log.trace("Запрошена потоковая выгрузка пользователей");
+        return NdjsonStreams.body(objectMapper, userService::streamUsers);
+    }
+
+    @GetMapping(value = "/users/{id}/likes/stream", produces = NdjsonStreams.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLikedFilms(@PathVariable Long id) {
+        userService.getUser(id);
+        log.trace("Запрошена потоковая выгрузка понравившихся фильмов пользователя c id=" + id);
+        return NdjsonStreams.<Film>body(objectMapper, consumer -> userService.streamLikedFilms(id, consumer));
     }
 
     @GetMapping(value = "/users/{id}/friends")
@@ -41,6 +71,15 @@ public class UserController {
         return friendsList;
     }
 
+    @GetMapping(value = "/users/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(
+            @PathVariable Long id,
+            @RequestParam(value = "limit", defaultValue = "10", required = false) int limit) {
+        List<User> suggestions = userService.getFriendSuggestions(id, limit);
+        log.trace("Для пользователя c id=" + id + " подобрано возможных друзей: " + suggestions.size());
+        return suggestions;
+    }
+
     @GetMapping(value = "/users/{id}/friends/common/{otherId}")
     public List<User> getCommonFriends(
             @PathVariable Long id,
@@ -58,6 +97,14 @@ public class UserController {
         return addedUser;
     }
 
+    @PostMapping(value = "/users/bulk", consumes = NdjsonStreams.APPLICATION_NDJSON_VALUE)
+    public BulkImportResult addUsers(InputStream body) throws IOException {
+        BulkImportResult result = NdjsonStreams.read(body, objectMapper, validator, User.class, userService::addUsers);
+        log.trace("Импорт пользователей завершен, добавлено: " + result.getImported()
+                + ", ошибок: " + result.getErrors().size());
+        return result;
+    }
+
     @PutMapping(value = "/users")
     public User updateUser(@Valid @RequestBody User user) {
         User updatedUser = userService.updateUser(user);
@@ -97,8 +144,32 @@ public class UserController {
     }
 
     @GetMapping(value = "/users/{id}/feed")
-    public List<Event> getUserFeed(@PathVariable("id") Long userId) {
+    public ResponseEntity<List<Event>> getUserFeed(
+            @PathVariable("id") Long userId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestParam(value = "until", required = false) Long until,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         log.trace("Запрошена лента событий пользователя c id=" + userId);
-        return eventService.getUserFeed(userId);
+        if (after == null && (since != null || until != null)) {
+            return ResponseEntity.ok(eventService.getUserFeed(userId,
+                    since == null ? Long.MIN_VALUE : since,
+                    until == null ? Long.MAX_VALUE : until,
+                    limit == null ? PageCursor.DEFAULT_LIMIT : limit));
+        }
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(eventService.getUserFeed(userId));
+        }
+        int pageSize = limit == null ? PageCursor.DEFAULT_LIMIT : limit;
+        List<Event> events = eventService.getUserFeed(userId, PageCursor.decode(after), pageSize);
+        return PageCursor.page(events, pageSize, Event::getEventId);
+    }
+
+    @GetMapping(value = "/users/{id}/friends/feed")
+    public ResponseEntity<List<Event>> getFriendsFeed(
+            @PathVariable("id") Long userId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.trace("Запрошена лента событий друзей пользователя c id=" + userId);
+        return ResponseEntity.ok(eventService.getFriendsFeed(userId, limit));
     }
 }
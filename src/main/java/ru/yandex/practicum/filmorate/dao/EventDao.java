@@ -7,5 +7,13 @@ import java.util.List;
 public interface EventDao {
     List<Event> getUserFeed(long userId);
 
+    List<Event> getUserFeed(long userId, long afterId, int limit);
+
+    List<Event> getUserFeed(long userId, long since, long until, int limit);
+
+    List<Event> getFriendsFeed(long userId, int limit);
+
     void addEvent(Event event);
+
+    void addEvents(List<Event> events);
 }
@@ -5,6 +5,7 @@ import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmDao {
 
@@ -12,8 +13,14 @@ public interface FilmDao {
 
     List<Film> getFilms();
 
+    List<Film> getFilms(long afterId, int limit);
+
+    void streamFilms(Consumer<Film> consumer);
+
     Long addFilm(Film film);
 
+    List<Long> addFilms(List<Film> films);
+
     void updateFilm(Film film);
 
     List<Film> getPopularFilms(int count);
@@ -24,14 +31,18 @@ public interface FilmDao {
 
     List<Film> getFilmsByDirectorIdForLikes(long directorId);
 
-    void addLike(long filmId, long userId);
+    boolean addLike(long filmId, long userId);
 
-    void deleteLike(long filmId, long userId);
+    List<FilmLikes> addLikes(List<FilmLikes> likes);
+
+    boolean deleteLike(long filmId, long userId);
 
     List<FilmLikes> findAllFilmLikes();
 
     void deleteFilmByFilmId(long filmId);
 
+    List<Film> searchFilms(String query, boolean byTitle, boolean byDirector);
+
     List<Film> searchFilmsWithDirectorAndTitle(String query);
 
     List<Film> searchFilmsWithDirector(String query);
@@ -40,5 +51,13 @@ public interface FilmDao {
 
     List<Film> getFilmsLikedByUser(long userId);
 
+    void streamFilmsLikedByUser(long userId, Consumer<Film> consumer);
+
+    List<Film> getCommonFilms(long userId, long otherUserId);
+
+    List<Film> getFilmsByIds(List<Long> filmIds);
+
+    List<Long> getRecommendedFilmIds(long userId);
+
     boolean isFilmLikeExist(long filmId, long userId);
 }
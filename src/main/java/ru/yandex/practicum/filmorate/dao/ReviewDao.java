@@ -19,11 +19,11 @@ public interface ReviewDao {
 
     List<Review> getReviewsByFilmId(long filmId, int count);
 
-    void addLike(long reviewId, long userId);
+    boolean addLike(long reviewId, long userId);
 
-    void addDislike(long reviewId, long userId);
+    boolean addDislike(long reviewId, long userId);
 
-    void deleteLike(long reviewId, long userId);
+    boolean deleteLike(long reviewId, long userId);
 
-    void deleteDislike(long reviewId, long userId);
+    boolean deleteDislike(long reviewId, long userId);
 }
@@ -5,13 +5,20 @@ import ru.yandex.practicum.filmorate.entity.user.User;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface UserDao {
 
     List<User> getUsers();
 
+    List<User> getUsers(long afterId, int limit);
+
+    void streamUsers(Consumer<User> consumer);
+
     Long addUser(User user);
 
+    List<Long> addUsers(List<User> users);
+
     void updateUser(User user);
 
     Optional<User> getUserById(long id);
@@ -22,5 +29,9 @@ public interface UserDao {
 
     Set<User> getUserFriends(long id);
 
+    List<User> getCommonFriends(long userId, long otherUserId);
+
+    List<User> getFriendSuggestions(long userId, int limit);
+
     void deleteUserById(long userId);
 }
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.DirectorDao;
+import ru.yandex.practicum.filmorate.entity.film.Director;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Component
+@Primary
+@Slf4j
+public class CachedDirectorDao implements DirectorDao {
+
+    private final DirectorDaoImpl directorDao;
+    private volatile ReferenceSnapshot<Director> snapshot;
+
+    public CachedDirectorDao(DirectorDaoImpl directorDao) {
+        this.directorDao = directorDao;
+        snapshot = ReferenceSnapshot.of(directorDao.getAllDirector(), Director::getId);
+        log.info("Кэш режиссеров загружен, размер = {}", snapshot.size());
+    }
+
+    @Override
+    public Optional<Director> getDirectorById(long id) {
+        return snapshot.get(id).map(CachedDirectorDao::copy);
+    }
+
+    @Override
+    public List<Director> getAllDirector() {
+        return snapshot.values().stream()
+                .map(CachedDirectorDao::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized Long addDirector(Director director) {
+        Long id = directorDao.addDirector(director);
+        snapshot = snapshot.with(Director.builder()
+                .id(id)
+                .name(director.getName().strip())
+                .build());
+        return id;
+    }
+
+    @Override
+    public synchronized void updateDirector(Director director) {
+        directorDao.updateDirector(director);
+        if (snapshot.contains(director.getId())) {
+            snapshot = snapshot.with(Director.builder()
+                    .id(director.getId())
+                    .name(director.getName().strip())
+                    .build());
+        }
+    }
+
+    @Override
+    public synchronized void deleteDirector(long directorId) {
+        directorDao.deleteDirector(directorId);
+        snapshot = snapshot.without(directorId);
+    }
+
+    private static Director copy(Director director) {
+        return Director.builder()
+                .id(director.getId())
+                .name(director.getName())
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.GenreDao;
+import ru.yandex.practicum.filmorate.entity.film.Genre;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Component
+@Primary
+@Slf4j
+public class CachedGenreDao implements GenreDao {
+
+    private final ReferenceSnapshot<Genre> snapshot;
+
+    public CachedGenreDao(GenreDaoImpl genreDao) {
+        snapshot = ReferenceSnapshot.of(genreDao.getAllGenres(), Genre::getId);
+        log.info("Кэш жанров загружен, размер = {}", snapshot.size());
+    }
+
+    @Override
+    public Optional<Genre> getGenreById(int id) {
+        return snapshot.get(id).map(CachedGenreDao::copy);
+    }
+
+    @Override
+    public List<Genre> getAllGenres() {
+        return snapshot.values().stream()
+                .map(CachedGenreDao::copy)
+                .collect(Collectors.toList());
+    }
+
+    private static Genre copy(Genre genre) {
+        return Genre.builder()
+                .id(genre.getId())
+                .name(genre.getName())
+                .build();
+    }
+}
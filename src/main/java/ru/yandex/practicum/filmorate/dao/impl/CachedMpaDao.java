@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.MpaDao;
+import ru.yandex.practicum.filmorate.entity.film.Mpa;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Component
+@Primary
+@Slf4j
+public class CachedMpaDao implements MpaDao {
+
+    private final ReferenceSnapshot<Mpa> snapshot;
+
+    public CachedMpaDao(MpaDaoImpl mpaDao) {
+        snapshot = ReferenceSnapshot.of(mpaDao.getAllMpa(), Mpa::getId);
+        log.info("Кэш рейтингов MPA загружен, размер = {}", snapshot.size());
+    }
+
+    @Override
+    public Optional<Mpa> getMpaById(int id) {
+        return snapshot.get(id).map(CachedMpaDao::copy);
+    }
+
+    @Override
+    public List<Mpa> getAllMpa() {
+        return snapshot.values().stream()
+                .map(CachedMpaDao::copy)
+                .collect(Collectors.toList());
+    }
+
+    private static Mpa copy(Mpa mpa) {
+        return Mpa.builder()
+                .id(mpa.getId())
+                .name(mpa.getName())
+                .build();
+    }
+}
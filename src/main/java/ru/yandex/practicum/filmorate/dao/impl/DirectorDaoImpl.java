@@ -21,6 +21,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class DirectorDaoImpl implements DirectorDao {
     private final JdbcTemplate jdbcTemplate;
+    private final FilmSearchIndex filmSearchIndex;
 
     @Override
     public Optional<Director> getDirectorById(long id) {
@@ -59,6 +60,7 @@ public class DirectorDaoImpl implements DirectorDao {
             return preparedStatement;
         }, keyHolder);
         Long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
+        filmSearchIndex.putDirector(id, director.getName().strip());
         log.info("Режиссер с id={} добавлен", id);
         return id;
     }
@@ -66,15 +68,19 @@ public class DirectorDaoImpl implements DirectorDao {
     @Override
     public void updateDirector(Director director) {
         String sql = "UPDATE \"directors\" SET NAME = ? WHERE DIRECTOR_ID = ?";
-        jdbcTemplate.update(sql,
+        int updated = jdbcTemplate.update(sql,
                 director.getName(),
                 director.getId());
+        if (updated > 0) {
+            filmSearchIndex.putDirector(director.getId(), director.getName());
+        }
         log.info("Режиссер с id = {} обновлен", director.getId());
     }
 
     @Override
     public void deleteDirector(long directorId) {
         jdbcTemplate.update("DELETE FROM \"directors\" WHERE DIRECTOR_ID = ?", directorId);
+        filmSearchIndex.removeDirector(directorId);
         log.info("Удален режиссер с: id={}", directorId);
         log.info("Режиссер с идентификатором {} не найден.", directorId);
     }
@@ -3,53 +3,105 @@ package ru.yandex.practicum.filmorate.dao.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.dao.EventDao;
 import ru.yandex.practicum.filmorate.entity.Event;
 import ru.yandex.practicum.filmorate.entity.EventType;
 import ru.yandex.practicum.filmorate.entity.Operation;
 
-import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class EventDaoImpl implements EventDao {
     private final JdbcTemplate jdbcTemplate;
+    private final EventWriteBuffer eventWriteBuffer;
+    private final RecentEventsCache recentEventsCache;
+    private final FriendTimeline friendTimeline;
 
     @Override
     public void addEvent(Event event) {
-        String sql = "INSERT INTO \"events\" (USER_ID, EVENT_TYPE, OPERATION, TIMESTAMP, ENTITY_ID) VALUES (?,?,?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(conn -> {
-            PreparedStatement preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setLong(1, event.getUserId());
-            preparedStatement.setString(2, event.getEventType().toString());
-            preparedStatement.setString(3, event.getOperation().toString());
-            preparedStatement.setLong(4, event.getTimestamp());
-            preparedStatement.setLong(5, event.getEntityId());
-            return preparedStatement;
-        }, keyHolder);
-        event.setEventId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        eventWriteBuffer.addEvent(event);
+    }
+
+    @Override
+    public void addEvents(List<Event> events) {
+        eventWriteBuffer.addEvents(events);
     }
 
     @Override
     public List<Event> getUserFeed(long userId) {
+        eventWriteBuffer.flush();
         String sql = "SELECT * FROM \"events\" WHERE USER_ID = ? ORDER BY TIMESTAMP";
-        List<Event> userEvents = jdbcTemplate.query(sql, (rs, rowNum) -> Event.builder()
+        List<Event> userEvents = jdbcTemplate.query(sql, this::mapRowToEvent, userId);
+        log.info("Лента событий пользователя id=" + userId + " получена, длина = {}", userEvents.size());
+        return userEvents;
+    }
+
+    @Override
+    public List<Event> getUserFeed(long userId, long afterId, int limit) {
+        eventWriteBuffer.flush();
+        String sql = "SELECT * FROM \"events\" WHERE USER_ID = ? AND EVENT_ID > ? ORDER BY EVENT_ID LIMIT ?";
+        List<Event> userEvents = jdbcTemplate.query(sql, this::mapRowToEvent, userId, afterId, limit);
+        log.info("Страница ленты событий пользователя id={} после id={} получена, длина = {}",
+                userId, afterId, userEvents.size());
+        return userEvents;
+    }
+
+    @Override
+    public List<Event> getUserFeed(long userId, long since, long until, int limit) {
+        eventWriteBuffer.flush();
+        if (recentEventsCache.covers(limit)) {
+            Optional<List<Event>> cached = recentEventsCache.get(userId, this::loadRecentEvents)
+                    .window(since, until, limit);
+            if (cached.isPresent()) {
+                log.info("Лента событий пользователя id={} получена из кэша, длина = {}", userId, cached.get().size());
+                return cached.get();
+            }
+        }
+        String sql = "SELECT * FROM (SELECT * FROM \"events\" WHERE USER_ID = ? AND TIMESTAMP >= ? AND TIMESTAMP < ? " +
+                "ORDER BY TIMESTAMP DESC, EVENT_ID DESC LIMIT ?) e ORDER BY TIMESTAMP, EVENT_ID";
+        List<Event> userEvents = jdbcTemplate.query(sql, this::mapRowToEvent, userId, since, until, limit);
+        log.info("Лента событий пользователя id={} за период [{}, {}) получена, длина = {}",
+                userId, since, until, userEvents.size());
+        return userEvents;
+    }
+
+    @Override
+    public List<Event> getFriendsFeed(long userId, int limit) {
+        eventWriteBuffer.flush();
+        int pageSize = Math.min(limit, friendTimeline.getInboxSize());
+        List<Event> events = friendTimeline.read(userId, pageSize)
+                .orElseGet(() -> friendTimeline.warmAndRead(userId, pageSize, this::loadFriendsEvents));
+        log.info("Лента событий друзей пользователя id={} получена, длина = {}", userId, events.size());
+        return events;
+    }
+
+    private List<Event> loadFriendsEvents(long userId) {
+        String sql = "SELECT * FROM (SELECT e.* FROM \"events\" e " +
+                "JOIN \"user_friends\" uf ON uf.FRIEND_USER_ID = e.USER_ID WHERE uf.USER_ID = ? " +
+                "ORDER BY e.TIMESTAMP DESC, e.EVENT_ID DESC LIMIT ?) e ORDER BY TIMESTAMP, EVENT_ID";
+        return jdbcTemplate.query(sql, this::mapRowToEvent, userId, friendTimeline.getInboxSize());
+    }
+
+    private List<Event> loadRecentEvents(long userId) {
+        String sql = "SELECT * FROM (SELECT * FROM \"events\" WHERE USER_ID = ? " +
+                "ORDER BY TIMESTAMP DESC, EVENT_ID DESC LIMIT ?) e ORDER BY TIMESTAMP, EVENT_ID";
+        return jdbcTemplate.query(sql, this::mapRowToEvent, userId, recentEventsCache.getEventsPerUser());
+    }
+
+    private Event mapRowToEvent(ResultSet rs, int rowNum) throws SQLException {
+        return Event.builder()
                 .eventId(rs.getLong("EVENT_ID"))
                 .userId(rs.getLong("USER_ID"))
                 .eventType(EventType.valueOf(rs.getString("EVENT_TYPE")))
                 .operation(Operation.valueOf(rs.getString("OPERATION")))
                 .timestamp(rs.getLong("TIMESTAMP"))
                 .entityId(rs.getLong("ENTITY_ID"))
-                .build(), userId);
-        log.info("Лента событий пользователя id=" + userId + " получена, длина = {}", userEvents.size());
-        return userEvents;
+                .build();
     }
 }
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.entity.Event;
+
+import javax.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class EventWriteBuffer {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO \"events\" (USER_ID, EVENT_TYPE, OPERATION, TIMESTAMP, ENTITY_ID) VALUES (?,?,?,?,?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecentEventsCache recentEventsCache;
+    private final FriendTimeline friendTimeline;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int capacity;
+    private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public EventWriteBuffer(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            RecentEventsCache recentEventsCache,
+                            FriendTimeline friendTimeline,
+                            @Value("${filmorate.events.write-behind.enabled:false}") boolean enabled,
+                            @Value("${filmorate.events.write-behind.batch-size:500}") int batchSize,
+                            @Value("${filmorate.events.write-behind.capacity:10000}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recentEventsCache = recentEventsCache;
+        this.friendTimeline = friendTimeline;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+    }
+
+    public void addEvent(Event event) {
+        addEvents(List.of(event));
+    }
+
+    public void addEvents(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!enabled) {
+            synchronized (this) {
+                insert(events);
+                recentEventsCache.evict(events.stream().map(Event::getUserId).collect(Collectors.toSet()));
+                friendTimeline.publish(events);
+            }
+            return;
+        }
+        queue.addAll(events);
+        if (size.addAndGet(events.size()) >= capacity) {
+            log.warn("Очередь событий заполнена ({}), запись выполняется в потоке запроса", capacity);
+            flush();
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${filmorate.events.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (size.get() == 0) {
+            return;
+        }
+        synchronized (this) {
+            int written = 0;
+            List<Event> batch = nextBatch();
+            while (!batch.isEmpty()) {
+                List<Event> writtenEvents = write(batch);
+                written += writtenEvents.size();
+                recentEventsCache.evict(batch.stream().map(Event::getUserId).collect(Collectors.toSet()));
+                friendTimeline.publish(writtenEvents);
+                size.addAndGet(-batch.size());
+                batch = nextBatch();
+            }
+            if (written > 0) {
+                log.info("Записано событий из очереди: {}", written);
+            }
+        }
+    }
+
+    private List<Event> nextBatch() {
+        List<Event> batch = new ArrayList<>(Math.min(batchSize, size.get()));
+        Event event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        return batch;
+    }
+
+    private List<Event> write(List<Event> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            return batch;
+        } catch (DataAccessException e) {
+            log.warn("Пакетная запись событий не удалась, события записываются по одному: {}", e.getMessage());
+        }
+        List<Event> written = new ArrayList<>(batch.size());
+        for (Event event : batch) {
+            try {
+                insert(List.of(event));
+                written.add(event);
+            } catch (DataAccessException e) {
+                log.warn("Событие пользователя id={} не записано: {}", event.getUserId(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    private void insert(List<Event> events) {
+        jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT_EVENT_SQL, new String[]{"EVENT_ID"}),
+                (PreparedStatementCallback<Void>) ps -> {
+                    for (Event event : events) {
+                        new ArgumentPreparedStatementSetter(toRow(event)).setValues(ps);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < events.size() && keys.next(); i++) {
+                            events.get(i).setEventId(keys.getLong(1));
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    private static Object[] toRow(Event event) {
+        return new Object[]{event.getUserId(), event.getEventType().toString(), event.getOperation().toString(),
+                event.getTimestamp(), event.getEntityId()};
+    }
+}
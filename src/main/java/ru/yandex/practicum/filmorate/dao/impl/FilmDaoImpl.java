@@ -2,11 +2,15 @@ package ru.yandex.practicum.filmorate.dao.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.DirectorDao;
 import ru.yandex.practicum.filmorate.dao.FilmDao;
 import ru.yandex.practicum.filmorate.dao.GenreDao;
@@ -15,21 +19,36 @@ import ru.yandex.practicum.filmorate.entity.film.Director;
 import ru.yandex.practicum.filmorate.entity.film.Film;
 import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 import ru.yandex.practicum.filmorate.entity.film.Genre;
+import ru.yandex.practicum.filmorate.entity.film.Mpa;
 import ru.yandex.practicum.filmorate.exception.MpaNotFoundException;
 
 import java.sql.Date;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class FilmDaoImpl implements FilmDao {
 
+    private static final String INSERT_FILM_SQL = "INSERT INTO \"films\" " +
+            "(NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID) VALUES (?,?,?,?,?,?);";
+
+    private static final String INSERT_LIKE_SQL = "INSERT INTO \"film_likes\" (FILM_ID, USER_ID) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM \"film_likes\" WHERE FILM_ID = ? AND USER_ID = ?);";
+
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
     private final MpaDao mpaDao;
     private final GenreDao genreDao;
     private final DirectorDao directorDao;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final FilmLikesIndex filmLikesIndex;
+    private final FilmRateBuffer filmRateBuffer;
+    private final FilmSearchIndex filmSearchIndex;
+    private final ReviewRankingIndex reviewRankingIndex;
 
     @Override
     public Optional<Film> getFilmById(long id) {
@@ -58,94 +77,172 @@ public class FilmDaoImpl implements FilmDao {
     @Override
     public List<Film> getFilms() {
         String sql = "SELECT * FROM \"films\"";
-        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm);
+        List<Film> films = loadFilms(sql);
         log.info("Список фильмов получен. Длина = {}", films.size());
         return films;
     }
 
     @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        String sql = "SELECT * FROM \"films\" WHERE FILM_ID > ? ORDER BY FILM_ID LIMIT ?";
+        long afterId = 0;
+        List<Film> chunk;
+        do {
+            chunk = loadFilms(sql, afterId, STREAM_CHUNK_SIZE);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+        log.info("Выгрузка списка фильмов завершена");
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        String sql = "SELECT * FROM \"films\" WHERE FILM_ID > ? ORDER BY FILM_ID LIMIT ?";
+        List<Film> films = loadFilms(sql, afterId, limit);
+        log.info("Страница фильмов после id={} получена. Длина = {}", afterId, films.size());
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Long addFilm(Film film) {
-        String sqlFilms = "INSERT INTO \"films\" (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID) VALUES" +
-                " (?,?,?,?,?,?);";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(conn -> {
-            PreparedStatement preparedStatement = conn.prepareStatement(sqlFilms, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setString(1, film.getName().strip());
-            preparedStatement.setString(2, film.getDescription().strip());
-            preparedStatement.setDate(3, Date.valueOf(film.getReleaseDate()));
-            preparedStatement.setInt(4, film.getDuration());
-            preparedStatement.setInt(5, 0);
-            if (film.getMpa() == null) {
-                preparedStatement.setNull(6, java.sql.Types.NULL);
-            } else {
-                preparedStatement.setInt(6, film.getMpa().getId());
-            }
+            PreparedStatement preparedStatement = conn.prepareStatement(INSERT_FILM_SQL, Statement.RETURN_GENERATED_KEYS);
+            setFilmParameters(preparedStatement, film);
             return preparedStatement;
         }, keyHolder);
         Long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
-        if (film.getGenres() != null) {
-            film.getGenres().forEach(genre -> addFilmsGenre(id, genre.getId()));
-        }
-        if (film.getDirectors() != null) {
-            film.getDirectors().forEach(director -> addFilmsDirector(id, director.getId()));
-        }
+        Set<Integer> genreIds = getExistingGenreIds(film);
+        Set<Long> directorIds = getExistingDirectorIds(film);
+        syncAssociations("films_genres", "GENRE_ID", id, genreIds, Set.of());
+        syncAssociations("films_directors", "DIRECTOR_ID", id, directorIds, Set.of());
+        popularFilmsIndex.putFilm(id, 0, film.getReleaseDate(), genreIds);
+        filmSearchIndex.putFilm(id, film.getName().strip(), directorIds);
         log.info("Фильм с id={} добавлен", id);
         return id;
     }
 
     @Override
+    @Transactional
+    public List<Long> addFilms(List<Film> films) {
+        List<Long> ids = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<List<Long>>) conn -> {
+            try (PreparedStatement preparedStatement =
+                         conn.prepareStatement(INSERT_FILM_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Film film : films) {
+                    setFilmParameters(preparedStatement, film);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                List<Long> keys = new ArrayList<>(films.size());
+                try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        keys.add(generatedKeys.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        }));
+        List<Object[]> genreRows = new ArrayList<>();
+        List<Object[]> directorRows = new ArrayList<>();
+        List<Set<Integer>> genreIds = new ArrayList<>(films.size());
+        List<Set<Long>> directorIds = new ArrayList<>(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            long id = ids.get(i);
+            genreIds.add(getExistingGenreIds(films.get(i)));
+            directorIds.add(getExistingDirectorIds(films.get(i)));
+            genreIds.get(i).forEach(genreId -> genreRows.add(new Object[]{id, genreId}));
+            directorIds.get(i).forEach(directorId -> directorRows.add(new Object[]{id, directorId}));
+        }
+        if (!genreRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO \"films_genres\" (FILM_ID, GENRE_ID) VALUES (?, ?)", genreRows);
+        }
+        if (!directorRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO \"films_directors\" (FILM_ID, DIRECTOR_ID) VALUES (?, ?)",
+                    directorRows);
+        }
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            popularFilmsIndex.putFilm(ids.get(i), 0, film.getReleaseDate(), genreIds.get(i));
+            filmSearchIndex.putFilm(ids.get(i), film.getName().strip(), directorIds.get(i));
+        }
+        log.info("Пакетом добавлено фильмов: {}", ids.size());
+        return ids;
+    }
+
+    private static void setFilmParameters(PreparedStatement preparedStatement, Film film) throws SQLException {
+        preparedStatement.setString(1, film.getName().strip());
+        preparedStatement.setString(2, film.getDescription() == null ? null : film.getDescription().strip());
+        preparedStatement.setDate(3, film.getReleaseDate() == null ? null : Date.valueOf(film.getReleaseDate()));
+        preparedStatement.setInt(4, film.getDuration());
+        preparedStatement.setInt(5, 0);
+        if (film.getMpa() == null) {
+            preparedStatement.setNull(6, java.sql.Types.NULL);
+        } else {
+            preparedStatement.setInt(6, film.getMpa().getId());
+        }
+    }
+
+    @Override
+    @Transactional
     public void updateFilm(Film film) {
         String sql = "UPDATE \"films\" SET NAME = ?, DESCRIPTION = ?, RELEASE_DATE = ?, DURATION = ?" +
                 ", MPA_ID = ? WHERE FILM_ID = ?";
         if (film.getRate() == null) {
             film.setRate(0);
         }
-        jdbcTemplate.update(sql,
+        int updated = jdbcTemplate.update(sql,
                 film.getName(),
                 film.getDescription(),
                 Date.valueOf(film.getReleaseDate()),
                 film.getDuration(),
                 film.getMpa().getId(),
                 film.getId());
-        deleteFilmGenres(film.getId());
-        if (film.getGenres() != null) {
-            film.getGenres().forEach(genre -> addFilmsGenre(film.getId(), genre.getId()));
-        }
-        deleteFilmDirectors(film.getId());
-        if (film.getDirectors() != null) {
-            film.getDirectors().forEach(director -> addFilmsDirector(film.getId(), director.getId()));
+        if (updated == 0) {
+            log.info("Фильма с id = {} не существует", film.getId());
+            return;
         }
+        Set<Integer> genreIds = getExistingGenreIds(film);
+        Set<Long> directorIds = getExistingDirectorIds(film);
+        syncAssociations("films_genres", "GENRE_ID", film.getId(), genreIds, new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT GENRE_ID FROM \"films_genres\" WHERE FILM_ID = ?", Integer.class, film.getId())));
+        syncAssociations("films_directors", "DIRECTOR_ID", film.getId(), directorIds, new HashSet<>(
+                jdbcTemplate.queryForList("SELECT DIRECTOR_ID FROM \"films_directors\" WHERE FILM_ID = ?",
+                        Long.class, film.getId())));
+        popularFilmsIndex.updateFilm(film.getId(), film.getReleaseDate(), genreIds);
+        filmSearchIndex.putFilm(film.getId(), film.getName(), directorIds);
         log.info("Фильм с id = {} обновлен", film.getId());
     }
 
     @Override
     public List<Film> getPopularFilms(int count) {
-        String sql = "SELECT * FROM \"films\" f ORDER BY RATE DESC LIMIT ?;";
-        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, count);
+        List<Film> films = loadFilmsByIds(popularFilmsIndex.getPopularFilmIds(null, null, count));
         log.info("Список популярных фильмов получен. Длина = {}", films.size());
         return films;
     }
 
     @Override
     public List<Film> getPopularFilmsByGenreAndYear(Integer genreId, Integer year, int count) {
-        String sql = "SELECT " +
-                "DISTINCT f.film_id, " +
-                "f.name, " +
-                "f.description, " +
-                "f.release_date, " +
-                "f.duration, " +
-                "f.rate, " +
-                "f.mpa_id " +
-                "FROM \"films\" f JOIN \"films_genres\" fg ON f.FILM_ID = fg.FILM_ID  " +
-                "WHERE fg.GENRE_ID = (SELECT COALESCE(?, fg.GENRE_ID))" +
-                "AND EXTRACT(YEAR FROM CAST(f.RELEASE_DATE AS date)) " +
-                "= (SELECT COALESCE(?, EXTRACT(YEAR FROM CAST(f.RELEASE_DATE AS date)))) " +
-                "ORDER BY RATE DESC LIMIT ?;";
-        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, genreId, year, count);
+        List<Film> films = loadFilmsByIds(popularFilmsIndex.getPopularFilmIds(genreId, year, count));
         log.info("Список популярных фильмов получен. Длина = {}", films.size());
         return films;
     }
 
+    @Override
+    public List<Film> searchFilms(String query, boolean byTitle, boolean byDirector) {
+        if (!filmSearchIndex.isAvailable()) {
+            if (byTitle && byDirector) {
+                return searchFilmsWithDirectorAndTitle(query);
+            }
+            return byTitle ? searchFilmsWithTitle(query) : searchFilmsWithDirector(query);
+        }
+        List<Film> films = loadFilmsByIds(filmSearchIndex.search(query, byTitle, byDirector));
+        log.info("Список запрашиваемых фильмов получен из индекса. Длина = {}", films.size());
+        return films;
+    }
+
     @Override
     public List<Film> searchFilmsWithDirectorAndTitle(String query) {
         query = "%" + query + "%";
@@ -154,7 +251,7 @@ public class FilmDaoImpl implements FilmDao {
                 "left JOIN \"films_directors\" t ON f.FILM_ID =t.FILM_ID " +
                 "left JOIN \"directors\" d ON t.DIRECTOR_ID  = d.DIRECTOR_ID " +
                 " where lower(d.NAME) like ? or lower(f.NAME) like ? Order by f.FILM_ID DESC";
-        List<Film> films = jdbcTemplate.query(sqlQuery, this::mapRowToFilm, query, query);
+        List<Film> films = loadFilms(sqlQuery, query, query);
         log.info("Список запрашиваемых фильмов получен. Длина = {}", films.size());
         return films;
     }
@@ -167,7 +264,7 @@ public class FilmDaoImpl implements FilmDao {
                 "left JOIN \"films_directors\" t ON f.FILM_ID =t.FILM_ID " +
                 "left JOIN \"directors\" d ON t.DIRECTOR_ID  = d.DIRECTOR_ID " +
                 " where lower(d.NAME) like ? Order by f.FILM_ID DESC";
-        List<Film> films = jdbcTemplate.query(sqlQuery, this::mapRowToFilm, query);
+        List<Film> films = loadFilms(sqlQuery, query);
         log.info("Список запрашиваемых фильмов получен. Длина = {}", films.size());
         return films;
     }
@@ -180,7 +277,7 @@ public class FilmDaoImpl implements FilmDao {
                 "left JOIN \"films_directors\" t ON f.FILM_ID =t.FILM_ID " +
                 "left JOIN \"directors\" d ON t.DIRECTOR_ID  = d.DIRECTOR_ID " +
                 " where lower(f.NAME) like ? Order by f.FILM_ID DESC  ";
-        List<Film> films = jdbcTemplate.query(sqlQuery, this::mapRowToFilm, query);
+        List<Film> films = loadFilms(sqlQuery, query);
         log.info("Список запрашиваемых фильмов получен. Длина = {}", films.size());
         return films;
     }
@@ -190,7 +287,7 @@ public class FilmDaoImpl implements FilmDao {
         String sql = "SELECT * FROM \"films\" f JOIN \"films_directors\" fd ON f.FILM_ID = fd.FILM_ID " +
                 "WHERE fd.DIRECTOR_ID = ? " +
                 "ORDER BY f.RELEASE_DATE";
-        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, directorId);
+        List<Film> films = loadFilms(sql, directorId);
         log.info("Список фильмов получен. Длина = {}", films.size());
         return films;
     }
@@ -202,29 +299,114 @@ public class FilmDaoImpl implements FilmDao {
                 "JOIN \"films_directors\" fd ON f.film_id = fd.film_id " +
                 "WHERE fd.director_id = ? " +
                 "ORDER BY f.rate DESC";
-        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, directorId);
+        List<Film> films = loadFilms(sql, directorId);
         log.info("Список фильмов получен. Длина = {}", films.size());
         return films;
     }
 
     @Override
-    public void addLike(long filmId, long userId) {
-        String sqlFilmsLikes = "INSERT INTO \"film_likes\" (FILM_ID, USER_ID) VALUES (?,?)";
-        jdbcTemplate.update(sqlFilmsLikes, filmId, userId);
-        String sqlFilms = "UPDATE \"films\" SET RATE = ((SELECT RATE FROM \"films\" f" +
-                " WHERE FILM_ID = ?) + 1) WHERE FILM_ID = ?;";
-        jdbcTemplate.update(sqlFilms, filmId, filmId);
+    @Transactional
+    public boolean addLike(long filmId, long userId) {
+        boolean added;
+        try {
+            added = jdbcTemplate.update(INSERT_LIKE_SQL, filmId, userId, filmId, userId) == 1;
+        } catch (DuplicateKeyException e) {
+            added = false;
+        }
+        if (!added) {
+            log.info("Пользователь id={} уже поставил лайк фильму id={}", userId, filmId);
+            return false;
+        }
+        filmRateBuffer.changeRate(filmId, 1);
+        popularFilmsIndex.changeRate(filmId, 1);
+        filmLikesIndex.addLike(filmId, userId);
         log.info("Фильму id={} поставил лайк пользователь id={}", filmId, userId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public List<FilmLikes> addLikes(List<FilmLikes> likes) {
+        LongPairHashSet seen = new LongPairHashSet(likes.size());
+        List<FilmLikes> unique = new ArrayList<>(likes.size());
+        List<Object[]> rows = new ArrayList<>(likes.size());
+        for (FilmLikes like : likes) {
+            if (seen.add(like.getFilmId(), like.getUserId())) {
+                unique.add(like);
+                rows.add(new Object[]{like.getFilmId(), like.getUserId(), like.getFilmId(), like.getUserId()});
+            }
+        }
+        int[] inserted = rows.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(INSERT_LIKE_SQL, rows);
+        List<FilmLikes> added = new ArrayList<>();
+        Map<Long, Long> rateDeltas = new HashMap<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] == 1) {
+                FilmLikes like = unique.get(i);
+                added.add(like);
+                rateDeltas.merge(like.getFilmId(), 1L, Long::sum);
+            }
+        }
+        filmRateBuffer.changeRates(rateDeltas);
+        rateDeltas.forEach(popularFilmsIndex::changeRate);
+        added.forEach(like -> filmLikesIndex.addLike(like.getFilmId(), like.getUserId()));
+        log.info("Пакет лайков обработан: получено {}, уникальных {}, добавлено {}",
+                likes.size(), unique.size(), added.size());
+        return added;
     }
 
     @Override
-    public void deleteLike(long filmId, long userId) {
-        String sqlFilmsLikes = "DELETE FROM \"film_likes\" WHERE FILM_ID = ? AND USER_ID = ?";
-        jdbcTemplate.update(sqlFilmsLikes, filmId, userId);
-        String sqlFilms = "UPDATE \"films\" SET RATE = ((SELECT RATE FROM \"films\" f" +
-                " WHERE FILM_ID = ?) - 1) WHERE FILM_ID = ?;";
-        jdbcTemplate.update(sqlFilms, filmId, filmId);
+    @Transactional
+    public boolean deleteLike(long filmId, long userId) {
+        String sql = "DELETE FROM \"film_likes\" WHERE FILM_ID = ? AND USER_ID = ?";
+        if (jdbcTemplate.update(sql, filmId, userId) == 0) {
+            log.info("У фильма id={} нет лайка пользователя id={}", filmId, userId);
+            return false;
+        }
+        filmRateBuffer.changeRate(filmId, -1);
+        popularFilmsIndex.changeRate(filmId, -1);
+        filmLikesIndex.removeLike(filmId, userId);
         log.info("У фильма id={} удалил лайк пользователь id={}", filmId, userId);
+        return true;
+    }
+
+    private List<Film> loadFilms(String sql, Object... args) {
+        return hydrateFilms(jdbcTemplate.query(sql, this::mapRowToFilm, args));
+    }
+
+    private List<Film> hydrateFilms(List<Film> films) {
+        for (int from = 0; from < films.size(); from += STREAM_CHUNK_SIZE) {
+            hydrateChunk(films.subList(from, Math.min(films.size(), from + STREAM_CHUNK_SIZE)));
+        }
+        return films;
+    }
+
+    private void hydrateChunk(List<Film> films) {
+        Set<Long> filmIds = new LinkedHashSet<>();
+        films.forEach(film -> filmIds.add(film.getId()));
+        Map<Long, Set<Genre>> genresByFilmId = getFilmsGenresByIds(filmIds);
+        Map<Long, Set<Director>> directorsByFilmId = getFilmsDirectorsByIds(filmIds);
+        for (Film film : films) {
+            film.setMpa(mpaDao.getMpaById(film.getMpa().getId())
+                    .orElseThrow(() -> new MpaNotFoundException("МПА рейтинг не найден")));
+            film.setGenres(genresByFilmId.getOrDefault(film.getId(), new HashSet<>()));
+            film.setDirectors(directorsByFilmId.getOrDefault(film.getId(), new HashSet<>()));
+        }
+    }
+
+    private List<Film> loadFilmsByIds(List<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT * FROM \"films\" f WHERE FILM_ID IN (" + placeholders(filmIds.size()) + ");";
+        Map<Long, Film> filmsById = new HashMap<>();
+        loadFilms(sql, filmIds.toArray()).forEach(film -> filmsById.put(film.getId(), film));
+        List<Film> films = new ArrayList<>(filmIds.size());
+        filmIds.forEach(id -> {
+            if (filmsById.containsKey(id)) {
+                films.add(filmsById.get(id));
+            }
+        });
+        return films;
     }
 
     private Film mapRowToFilm(ResultSet resultSet, int rowNum) throws SQLException {
@@ -235,81 +417,97 @@ public class FilmDaoImpl implements FilmDao {
                 .releaseDate(Objects.requireNonNull(resultSet.getDate("RELEASE_DATE")).toLocalDate())
                 .duration(resultSet.getInt("DURATION"))
                 .rate(resultSet.getInt("RATE"))
-                .mpa(mpaDao.getMpaById(resultSet.getInt("MPA_ID"))
-                        .orElseThrow(() -> new MpaNotFoundException("МПА рейтинг не найден")))
-                .genres(getFilmGenresById(resultSet.getLong("FILM_ID")))
-                .directors(getFilmDirectorsById(resultSet.getLong("FILM_ID")))
+                .mpa(Mpa.builder().id(resultSet.getInt("MPA_ID")).build())
                 .build();
     }
 
+    private Map<Long, Set<Genre>> getFilmsGenresByIds(Collection<Long> filmIds) {
+        String sql = "SELECT FILM_ID, GENRE_ID FROM \"films_genres\" WHERE FILM_ID IN ("
+                + placeholders(filmIds.size()) + ");";
+        Map<Long, Set<Genre>> genresByFilmId = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            long filmId = rs.getLong("FILM_ID");
+            genreDao.getGenreById(rs.getInt("GENRE_ID")).ifPresent(genre -> genresByFilmId
+                    .computeIfAbsent(filmId, id -> new HashSet<>())
+                    .add(genre));
+        }, filmIds.toArray());
+        log.info("Получены жанры для {} фильмов", genresByFilmId.size());
+        return genresByFilmId;
+    }
+
+    private Map<Long, Set<Director>> getFilmsDirectorsByIds(Collection<Long> filmIds) {
+        String sql = "SELECT FILM_ID, DIRECTOR_ID FROM \"films_directors\" WHERE FILM_ID IN ("
+                + placeholders(filmIds.size()) + ");";
+        Map<Long, Set<Director>> directorsByFilmId = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            long filmId = rs.getLong("FILM_ID");
+            directorDao.getDirectorById(rs.getLong("DIRECTOR_ID")).ifPresent(director -> directorsByFilmId
+                    .computeIfAbsent(filmId, id -> new HashSet<>())
+                    .add(director));
+        }, filmIds.toArray());
+        log.info("Получены режиссеры для {} фильмов", directorsByFilmId.size());
+        return directorsByFilmId;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
     private Set<Genre> getFilmGenresById(Long filmId) {
-        String sql = "SELECT fg.GENRE_ID, g.NAME FROM \"films_genres\" fg INNER JOIN \"genres\" g" +
-                " ON g.GENRE_ID = fg.GENRE_ID WHERE FILM_ID = ?;";
-        Set<Genre> genres = new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> Genre.builder()
-                .id(rs.getInt("GENRE_ID"))
-                .name(rs.getString("NAME").strip())
-                .build(), filmId));
+        Set<Genre> genres = getFilmsGenresByIds(List.of(filmId)).getOrDefault(filmId, new HashSet<>());
         log.info("Получен список жанров фильма id={}, длина списка = {}", filmId, genres.size());
         return genres;
     }
 
     private Set<Director> getFilmDirectorsById(Long filmId) {
-        String sql = "SELECT fd.DIRECTOR_ID, d.NAME FROM \"films_directors\" fd INNER JOIN \"directors\" d" +
-                " ON d.DIRECTOR_ID = fd.DIRECTOR_ID WHERE FILM_ID = ?;";
-        Set<Director> directors = new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> Director.builder()
-                .id(rs.getLong("DIRECTOR_ID"))
-                .name(rs.getString("NAME").strip())
-                .build(), filmId));
+        Set<Director> directors = getFilmsDirectorsByIds(List.of(filmId)).getOrDefault(filmId, new HashSet<>());
         log.info("Получен список режиссеров фильма id={}, длина списка = {}", filmId, directors.size());
         return directors;
     }
 
-    private void addFilmsGenre(Long filmId, int genreId) {
-        if (this.getFilmById(filmId).isEmpty()) {
-            log.info("Фильма с id = {} не существует", filmId);
-            return;
-        }
-        if (genreDao.getGenreById(genreId).isEmpty()) {
-            log.info("Жанра с id = {} не существует", genreId);
-            return;
+    private Set<Integer> getExistingGenreIds(Film film) {
+        Set<Integer> genreIds = new HashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(Genre::getId)
+                    .filter(genreId -> genreDao.getGenreById(genreId).isPresent())
+                    .forEach(genreIds::add);
         }
-        String sql = "INSERT INTO \"films_genres\" (FILM_ID, GENRE_ID) VALUES (?, ?);";
-        jdbcTemplate.update(sql, filmId, genreId);
-        log.info("Фильму id={} добавился жанр id={}", filmId, genreId);
+        return genreIds;
     }
 
-    private void addFilmsDirector(Long filmId, Long directorId) {
-        if (this.getFilmById(filmId).isEmpty()) {
-            log.info("Фильма с id = {} не существует", filmId);
-            return;
-        }
-        if (directorDao.getDirectorById(directorId).isEmpty()) {
-            log.info("Режиссер с id = {} не существует", directorId);
-            return;
+    private Set<Long> getExistingDirectorIds(Film film) {
+        Set<Long> directorIds = new HashSet<>();
+        if (film.getDirectors() != null) {
+            film.getDirectors().stream()
+                    .map(Director::getId)
+                    .filter(directorId -> directorDao.getDirectorById(directorId).isPresent())
+                    .forEach(directorIds::add);
         }
-        String sql = "INSERT INTO \"films_directors\" (FILM_ID, DIRECTOR_ID) VALUES (?, ?);";
-        jdbcTemplate.update(sql, filmId, directorId);
-        log.info("Фильму id={} добавился режиссер id={}", filmId, directorId);
+        return directorIds;
     }
 
-    private void deleteFilmGenres(Long filmId) {
-        if (this.getFilmById(filmId).isEmpty()) {
-            log.info("Фильма с id = {} не существует", filmId);
-            return;
+    private <T> void syncAssociations(String table, String column, long filmId, Set<T> ids, Set<T> currentIds) {
+        List<Object[]> removed = new ArrayList<>();
+        for (T id : currentIds) {
+            if (!ids.contains(id)) {
+                removed.add(new Object[]{filmId, id});
+            }
         }
-        String sql = "DELETE FROM \"films_genres\" WHERE FILM_ID = ?;";
-        jdbcTemplate.update(sql, filmId);
-        log.info("У фильма id={} удалились все жанры", filmId);
-    }
-
-    private void deleteFilmDirectors(Long filmId) {
-        if (this.getFilmById(filmId).isEmpty()) {
-            log.info("Фильма с id = {} не существует", filmId);
-            return;
+        List<Object[]> added = new ArrayList<>();
+        for (T id : ids) {
+            if (!currentIds.contains(id)) {
+                added.add(new Object[]{filmId, id});
+            }
         }
-        String sql = "DELETE FROM \"films_directors\" WHERE FILM_ID = ?;";
-        jdbcTemplate.update(sql, filmId);
-        log.info("У фильма id={} удалились все режиссеры", filmId);
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM \"" + table + "\" WHERE FILM_ID = ? AND " + column + " = ?", removed);
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO \"" + table + "\" (FILM_ID, " + column + ") VALUES (?, ?)", added);
+        }
+        log.info("Связи фильма id={} в {} обновлены: добавлено {}, удалено {}",
+                filmId, table, added.size(), removed.size());
     }
 
     @Override
@@ -327,6 +525,10 @@ public class FilmDaoImpl implements FilmDao {
     public void deleteFilmByFilmId(long filmId) {
         String sql = "DELETE FROM \"films\" WHERE FILM_ID = ?;";
         jdbcTemplate.update(sql, filmId);
+        popularFilmsIndex.removeFilm(filmId);
+        filmLikesIndex.removeFilm(filmId);
+        reviewRankingIndex.removeFilm(filmId);
+        filmSearchIndex.removeFilm(filmId);
     }
 
     @Override
@@ -335,11 +537,52 @@ public class FilmDaoImpl implements FilmDao {
                 "INNER JOIN \"film_likes\" fl ON f.FILM_ID = fl.FILM_ID \n" +
                 "WHERE fl.USER_ID = ?\n" +
                 "ORDER BY f.RATE DESC;";
-        List<Film> likedFilms = jdbcTemplate.query(sql, this::mapRowToFilm, userId);
+        List<Film> likedFilms = loadFilms(sql, userId);
         log.info("Список понравившихся фильмов получен. Длина = {}", likedFilms.size());
         return likedFilms;
     }
 
+    @Override
+    public void streamFilmsLikedByUser(long userId, Consumer<Film> consumer) {
+        String sql = "SELECT f.FILM_ID FROM \"films\" f " +
+                "INNER JOIN \"film_likes\" fl ON f.FILM_ID = fl.FILM_ID " +
+                "WHERE fl.USER_ID = ? " +
+                "ORDER BY f.RATE DESC";
+        List<Long> filmIds = jdbcTemplate.queryForList(sql, Long.class, userId);
+        for (int from = 0; from < filmIds.size(); from += STREAM_CHUNK_SIZE) {
+            loadFilmsByIds(filmIds.subList(from, Math.min(filmIds.size(), from + STREAM_CHUNK_SIZE))).forEach(consumer);
+        }
+        log.info("Выгрузка понравившихся фильмов пользователя id={} завершена", userId);
+    }
+
+    @Override
+    public List<Film> getCommonFilms(long userId, long otherUserId) {
+        List<Long> filmIds = filmLikesIndex.getCommonFilmIds(userId, otherUserId);
+        if (filmIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT * FROM \"films\" f WHERE FILM_ID IN (" + placeholders(filmIds.size()) + ") " +
+                "ORDER BY f.RATE DESC, f.FILM_ID;";
+        List<Film> commonFilms = loadFilms(sql, filmIds.toArray());
+        log.info("Список общих фильмов пользователей с id = {} и {} получен. Длина = {}",
+                userId, otherUserId, commonFilms.size());
+        return commonFilms;
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        List<Film> films = loadFilmsByIds(filmIds);
+        log.info("Список фильмов по идентификаторам получен. Длина = {}", films.size());
+        return films;
+    }
+
+    @Override
+    public List<Long> getRecommendedFilmIds(long userId) {
+        List<Long> filmIds = filmLikesIndex.getRecommendedFilmIds(userId);
+        log.info("Для пользователя id={} найдено рекомендаций: {}", userId, filmIds.size());
+        return filmIds;
+    }
+
     @Override
     public boolean isFilmLikeExist(long filmId, long userId) {
         String sql = "SELECT * FROM \"film_likes\" fl WHERE FILM_ID = ? AND USER_ID = ?;";
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.EMPTY;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.difference;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.emptyToNull;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.insert;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.intersection;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.remove;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.toSortedArray;
+
+@Component
+@Slf4j
+public class FilmLikesIndex {
+
+    private final ConcurrentMap<Long, long[]> filmsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, long[]> usersByFilm = new ConcurrentHashMap<>();
+
+    public FilmLikesIndex(JdbcTemplate jdbcTemplate) {
+        Map<Long, List<Long>> films = new HashMap<>();
+        Map<Long, List<Long>> users = new HashMap<>();
+        jdbcTemplate.query("SELECT FILM_ID, USER_ID FROM \"film_likes\";", (RowCallbackHandler) rs -> {
+            long filmId = rs.getLong("FILM_ID");
+            long userId = rs.getLong("USER_ID");
+            films.computeIfAbsent(userId, id -> new ArrayList<>()).add(filmId);
+            users.computeIfAbsent(filmId, id -> new ArrayList<>()).add(userId);
+        });
+        films.forEach((userId, filmIds) -> filmsByUser.put(userId, toSortedArray(filmIds)));
+        users.forEach((filmId, userIds) -> usersByFilm.put(filmId, toSortedArray(userIds)));
+        log.info("Индекс лайков построен, пользователей = {}, фильмов = {}", filmsByUser.size(), usersByFilm.size());
+    }
+
+    public synchronized void addLike(long filmId, long userId) {
+        filmsByUser.put(userId, insert(filmsByUser.getOrDefault(userId, EMPTY), filmId));
+        usersByFilm.put(filmId, insert(usersByFilm.getOrDefault(filmId, EMPTY), userId));
+    }
+
+    public synchronized void removeLike(long filmId, long userId) {
+        filmsByUser.computeIfPresent(userId, (id, filmIds) -> emptyToNull(remove(filmIds, filmId)));
+        usersByFilm.computeIfPresent(filmId, (id, userIds) -> emptyToNull(remove(userIds, userId)));
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        long[] userIds = usersByFilm.remove(filmId);
+        if (userIds != null) {
+            for (long userId : userIds) {
+                filmsByUser.computeIfPresent(userId, (id, filmIds) -> emptyToNull(remove(filmIds, filmId)));
+            }
+        }
+    }
+
+    public synchronized void removeUser(long userId) {
+        long[] filmIds = filmsByUser.remove(userId);
+        if (filmIds != null) {
+            for (long filmId : filmIds) {
+                usersByFilm.computeIfPresent(filmId, (id, userIds) -> emptyToNull(remove(userIds, userId)));
+            }
+        }
+    }
+
+    public long[] getFilmsLikedByUser(long userId) {
+        return filmsByUser.getOrDefault(userId, EMPTY);
+    }
+
+    public List<Long> getRecommendedFilmIds(long userId) {
+        long[] userFilms = getFilmsLikedByUser(userId);
+        long[] coLikers = collectCoLikers(userId, userFilms);
+        if (coLikers.length == 0) {
+            return List.of();
+        }
+        Arrays.sort(coLikers);
+        long bestUserId = coLikers[0];
+        int bestMatches = 0;
+        int start = 0;
+        for (int i = 1; i <= coLikers.length; i++) {
+            if (i == coLikers.length || coLikers[i] != coLikers[start]) {
+                if (i - start > bestMatches) {
+                    bestMatches = i - start;
+                    bestUserId = coLikers[start];
+                }
+                start = i;
+            }
+        }
+        return difference(getFilmsLikedByUser(bestUserId), userFilms);
+    }
+
+    public List<Long> getCommonFilmIds(long userId, long otherUserId) {
+        return intersection(getFilmsLikedByUser(userId), getFilmsLikedByUser(otherUserId));
+    }
+
+    private long[] collectCoLikers(long userId, long[] userFilms) {
+        int total = 0;
+        long[][] likers = new long[userFilms.length][];
+        for (int i = 0; i < userFilms.length; i++) {
+            likers[i] = usersByFilm.getOrDefault(userFilms[i], EMPTY);
+            total += likers[i].length;
+        }
+        long[] coLikers = new long[total];
+        int size = 0;
+        for (long[] userIds : likers) {
+            for (long otherUserId : userIds) {
+                if (otherUserId != userId) {
+                    coLikers[size++] = otherUserId;
+                }
+            }
+        }
+        return Arrays.copyOf(coLikers, size);
+    }
+}
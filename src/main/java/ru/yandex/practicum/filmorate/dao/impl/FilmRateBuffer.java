@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+@Slf4j
+public class FilmRateBuffer {
+
+    private static final String UPDATE_RATE_SQL = "UPDATE \"films\" SET RATE = RATE + ? WHERE FILM_ID = ?;";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ConcurrentMap<Long, Long> deltas = new ConcurrentHashMap<>();
+
+    public FilmRateBuffer(JdbcTemplate jdbcTemplate,
+                          @Value("${filmorate.likes.rate-buffer.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    public void changeRate(long filmId, long delta) {
+        if (enabled) {
+            deltas.merge(filmId, delta, Long::sum);
+        } else {
+            jdbcTemplate.update(UPDATE_RATE_SQL, delta, filmId);
+        }
+    }
+
+    public void changeRates(Map<Long, Long> filmDeltas) {
+        if (enabled) {
+            filmDeltas.forEach(this::changeRate);
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(filmDeltas.size());
+        filmDeltas.forEach((filmId, delta) -> batch.add(new Object[]{delta, filmId}));
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_RATE_SQL, batch);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${filmorate.likes.rate-buffer.flush-interval-ms:1000}")
+    public void flush() {
+        Map<Long, Long> taken = new HashMap<>();
+        for (Long filmId : deltas.keySet()) {
+            Long delta = deltas.remove(filmId);
+            if (delta != null && delta != 0) {
+                taken.put(filmId, delta);
+            }
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(taken.size());
+        taken.forEach((filmId, delta) -> batch.add(new Object[]{delta, filmId}));
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_RATE_SQL, batch);
+        } catch (DataAccessException e) {
+            taken.forEach((filmId, delta) -> deltas.merge(filmId, delta, Long::sum));
+            throw e;
+        }
+        log.info("Сброшены накопленные изменения рейтинга для {} фильмов", batch.size());
+    }
+}
@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+@Slf4j
+public class FilmSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    private final Postings titles = new Postings();
+    private final Postings directors = new Postings();
+    private final ConcurrentMap<Long, Set<Long>> filmsByDirector = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> directorsByFilm = new ConcurrentHashMap<>();
+    private volatile boolean available;
+
+    public FilmSearchIndex(JdbcTemplate jdbcTemplate) {
+        try {
+            jdbcTemplate.query("SELECT FILM_ID, NAME FROM \"films\";", (RowCallbackHandler) rs ->
+                    titles.put(rs.getLong("FILM_ID"), rs.getString("NAME")));
+            jdbcTemplate.query("SELECT DIRECTOR_ID, NAME FROM \"directors\";", (RowCallbackHandler) rs ->
+                    directors.put(rs.getLong("DIRECTOR_ID"), rs.getString("NAME")));
+            jdbcTemplate.query("SELECT FILM_ID, DIRECTOR_ID FROM \"films_directors\";", (RowCallbackHandler) rs ->
+                    link(rs.getLong("FILM_ID"), rs.getLong("DIRECTOR_ID")));
+            available = true;
+            log.info("Поисковый индекс построен, фильмов = {}, режиссеров = {}", titles.size(), directors.size());
+        } catch (DataAccessException e) {
+            log.warn("Поисковый индекс не построен, поиск будет выполняться в базе данных", e);
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public synchronized void putFilm(long filmId, String name, Collection<Long> directorIds) {
+        titles.put(filmId, name);
+        unlinkFilm(filmId);
+        directorIds.forEach(directorId -> link(filmId, directorId));
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        titles.remove(filmId);
+        unlinkFilm(filmId);
+    }
+
+    public synchronized void putDirector(long directorId, String name) {
+        directors.put(directorId, name);
+    }
+
+    public synchronized void removeDirector(long directorId) {
+        directors.remove(directorId);
+        Set<Long> filmIds = filmsByDirector.remove(directorId);
+        if (filmIds != null) {
+            filmIds.forEach(filmId -> directorsByFilm.computeIfPresent(filmId, (id, directorIds) -> {
+                directorIds.remove(directorId);
+                return directorIds.isEmpty() ? null : directorIds;
+            }));
+        }
+    }
+
+    public List<Long> search(String query, boolean byTitle, boolean byDirector) {
+        String normalized = normalize(query);
+        Map<Long, Integer> scores = new HashMap<>();
+        if (byTitle) {
+            titles.search(normalized).forEach(filmId -> scores.merge(filmId, 1, Integer::sum));
+        }
+        if (byDirector) {
+            Set<Long> filmIds = new HashSet<>();
+            directors.search(normalized).forEach(directorId ->
+                    filmIds.addAll(filmsByDirector.getOrDefault(directorId, Set.of())));
+            filmIds.forEach(filmId -> scores.merge(filmId, 1, Integer::sum));
+        }
+        List<Long> filmIds = new ArrayList<>(scores.keySet());
+        filmIds.sort(Comparator.comparing((Long filmId) -> scores.get(filmId)).reversed()
+                .thenComparing(Comparator.reverseOrder()));
+        return filmIds;
+    }
+
+    private void link(long filmId, long directorId) {
+        filmsByDirector.computeIfAbsent(directorId, id -> ConcurrentHashMap.newKeySet()).add(filmId);
+        directorsByFilm.computeIfAbsent(filmId, id -> ConcurrentHashMap.newKeySet()).add(directorId);
+    }
+
+    private void unlinkFilm(long filmId) {
+        Set<Long> directorIds = directorsByFilm.remove(filmId);
+        if (directorIds != null) {
+            directorIds.forEach(directorId -> filmsByDirector.computeIfPresent(directorId, (id, filmIds) -> {
+                filmIds.remove(filmId);
+                return filmIds.isEmpty() ? null : filmIds;
+            }));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static final class Postings {
+        private final ConcurrentMap<Long, String> values = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+        int size() {
+            return values.size();
+        }
+
+        void put(long id, String value) {
+            remove(id);
+            String normalized = normalize(value);
+            values.put(id, normalized);
+            grams(normalized).forEach(gram -> postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id));
+        }
+
+        void remove(long id) {
+            String previous = values.remove(id);
+            if (previous != null) {
+                grams(previous).forEach(gram -> postings.computeIfPresent(gram, (g, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                }));
+            }
+        }
+
+        List<Long> search(String query) {
+            Collection<Long> candidates = values.keySet();
+            if (query.length() >= GRAM_SIZE) {
+                for (String gram : grams(query)) {
+                    Set<Long> ids = postings.getOrDefault(gram, Set.of());
+                    if (ids.size() < candidates.size()) {
+                        candidates = ids;
+                    }
+                }
+            }
+            List<Long> result = new ArrayList<>();
+            for (Long id : candidates) {
+                String value = values.get(id);
+                if (value != null && value.contains(query)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.entity.Event;
+
+import java.util.*;
+import java.util.function.LongFunction;
+
+@Component
+public class FriendTimeline {
+
+    private static final int WARM_UP_ATTEMPTS = 3;
+
+    private static final Comparator<Published> TIMELINE_ORDER = Comparator
+            .comparing((Published published) -> published.event.getTimestamp())
+            .thenComparingLong(published -> published.sequence);
+
+    private final FriendshipIndex friendshipIndex;
+    private final int inboxSize;
+    private final int fanOutLimit;
+    private final Map<Long, Inbox> inboxes;
+    private final Map<Long, Deque<Published>> outboxes = new HashMap<>();
+    private long sequence;
+    private long generation;
+
+    public FriendTimeline(FriendshipIndex friendshipIndex,
+                          @Value("${filmorate.timeline.inbox-size:100}") int inboxSize,
+                          @Value("${filmorate.timeline.fan-out-limit:1000}") int fanOutLimit,
+                          @Value("${filmorate.timeline.max-users:10000}") int maxUsers) {
+        this.friendshipIndex = friendshipIndex;
+        this.inboxSize = inboxSize;
+        this.fanOutLimit = fanOutLimit;
+        this.inboxes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Inbox> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public int getInboxSize() {
+        return inboxSize;
+    }
+
+    public synchronized void publish(Collection<Event> events) {
+        generation++;
+        for (Event event : events) {
+            Published published = new Published(++sequence, event);
+            long[] followerIds = friendshipIndex.getFollowerIds(event.getUserId());
+            if (followerIds.length > fanOutLimit) {
+                Deque<Published> outbox = outboxes.computeIfAbsent(event.getUserId(), id -> new ArrayDeque<>());
+                outbox.addLast(published);
+                if (outbox.size() > inboxSize) {
+                    outbox.pollFirst();
+                }
+                continue;
+            }
+            for (long followerId : followerIds) {
+                Inbox inbox = inboxes.get(followerId);
+                if (inbox != null) {
+                    inbox.add(published, inboxSize);
+                }
+            }
+        }
+    }
+
+    public synchronized Optional<List<Event>> read(long userId, int limit) {
+        Inbox inbox = inboxes.get(userId);
+        return inbox == null ? Optional.empty() : Optional.of(merge(userId, inbox, limit));
+    }
+
+    public List<Event> warmAndRead(long userId, int limit, LongFunction<List<Event>> loader) {
+        List<Event> events = List.of();
+        for (int attempt = 0; attempt < WARM_UP_ATTEMPTS; attempt++) {
+            long startGeneration;
+            synchronized (this) {
+                Inbox inbox = inboxes.get(userId);
+                if (inbox != null) {
+                    return merge(userId, inbox, limit);
+                }
+                startGeneration = generation;
+            }
+            events = loader.apply(userId);
+            synchronized (this) {
+                Inbox inbox = inboxes.get(userId);
+                if (inbox == null && generation == startGeneration) {
+                    inbox = new Inbox(sequence, events);
+                    inboxes.put(userId, inbox);
+                }
+                if (inbox != null) {
+                    return merge(userId, inbox, limit);
+                }
+            }
+        }
+        return new ArrayList<>(events.subList(Math.max(0, events.size() - limit), events.size()));
+    }
+
+    public synchronized void invalidate(Collection<Long> userIds) {
+        generation++;
+        userIds.forEach(inboxes::remove);
+    }
+
+    public synchronized void removeUser(long userId) {
+        generation++;
+        inboxes.remove(userId);
+        outboxes.remove(userId);
+    }
+
+    private List<Event> merge(long userId, Inbox inbox, int limit) {
+        List<Published> candidates = new ArrayList<>();
+        Iterator<Published> inboxEntries = inbox.entries.descendingIterator();
+        while (candidates.size() < limit && inboxEntries.hasNext()) {
+            candidates.add(inboxEntries.next());
+        }
+        for (Map.Entry<Long, Deque<Published>> outbox : outboxes.entrySet()) {
+            if (!friendshipIndex.isFriend(userId, outbox.getKey())) {
+                continue;
+            }
+            Iterator<Published> published = outbox.getValue().descendingIterator();
+            int taken = 0;
+            while (taken < limit && published.hasNext()) {
+                Published next = published.next();
+                if (next.sequence <= inbox.warmedAt) {
+                    break;
+                }
+                if (!inbox.contains(next.event)) {
+                    candidates.add(next);
+                }
+                taken++;
+            }
+        }
+        candidates.sort(TIMELINE_ORDER);
+        List<Event> page = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = Math.max(0, candidates.size() - limit); i < candidates.size(); i++) {
+            page.add(candidates.get(i).event);
+        }
+        return page;
+    }
+
+    private static class Published {
+        private final long sequence;
+        private final Event event;
+
+        private Published(long sequence, Event event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    private static class Inbox {
+        private final long warmedAt;
+        private final ArrayDeque<Published> entries = new ArrayDeque<>();
+        private final Set<Long> eventIds = new HashSet<>();
+
+        private Inbox(long warmedAt, List<Event> events) {
+            this.warmedAt = warmedAt;
+            long loadedSequence = warmedAt - events.size();
+            for (Event event : events) {
+                entries.addLast(new Published(++loadedSequence, event));
+                if (event.getEventId() != null) {
+                    eventIds.add(event.getEventId());
+                }
+            }
+        }
+
+        private boolean contains(Event event) {
+            return event.getEventId() != null && eventIds.contains(event.getEventId());
+        }
+
+        private void add(Published published, int capacity) {
+            if (contains(published.event)) {
+                return;
+            }
+            entries.addLast(published);
+            if (published.event.getEventId() != null) {
+                eventIds.add(published.event.getEventId());
+            }
+            if (entries.size() > capacity) {
+                Event evicted = entries.pollFirst().event;
+                if (evicted.getEventId() != null) {
+                    eventIds.remove(evicted.getEventId());
+                }
+            }
+        }
+    }
+}
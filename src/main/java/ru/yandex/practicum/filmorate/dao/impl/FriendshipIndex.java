@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.EMPTY;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.emptyToNull;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.insert;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.intersection;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.remove;
+import static ru.yandex.practicum.filmorate.dao.impl.SortedLongArrays.toSortedArray;
+
+@Component
+@Slf4j
+public class FriendshipIndex {
+
+    private final ConcurrentMap<Long, long[]> friendsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, long[]> followersByUser = new ConcurrentHashMap<>();
+
+    public FriendshipIndex(JdbcTemplate jdbcTemplate) {
+        Map<Long, List<Long>> friends = new HashMap<>();
+        Map<Long, List<Long>> followers = new HashMap<>();
+        jdbcTemplate.query("SELECT USER_ID, FRIEND_USER_ID FROM \"user_friends\";", (RowCallbackHandler) rs -> {
+            long userId = rs.getLong("USER_ID");
+            long friendId = rs.getLong("FRIEND_USER_ID");
+            friends.computeIfAbsent(userId, id -> new ArrayList<>()).add(friendId);
+            followers.computeIfAbsent(friendId, id -> new ArrayList<>()).add(userId);
+        });
+        friends.forEach((userId, friendIds) -> friendsByUser.put(userId, toSortedArray(friendIds)));
+        followers.forEach((userId, followerIds) -> followersByUser.put(userId, toSortedArray(followerIds)));
+        log.info("Индекс дружбы построен, пользователей с друзьями = {}", friendsByUser.size());
+    }
+
+    public synchronized void addFriend(long userId, long friendId) {
+        friendsByUser.put(userId, insert(friendsByUser.getOrDefault(userId, EMPTY), friendId));
+        followersByUser.put(friendId, insert(followersByUser.getOrDefault(friendId, EMPTY), userId));
+    }
+
+    public synchronized void removeFriend(long userId, long friendId) {
+        friendsByUser.computeIfPresent(userId, (id, friendIds) -> emptyToNull(remove(friendIds, friendId)));
+        followersByUser.computeIfPresent(friendId, (id, followerIds) -> emptyToNull(remove(followerIds, userId)));
+    }
+
+    public synchronized void removeUser(long userId) {
+        long[] friendIds = friendsByUser.remove(userId);
+        if (friendIds != null) {
+            for (long friendId : friendIds) {
+                followersByUser.computeIfPresent(friendId, (id, followerIds) -> emptyToNull(remove(followerIds, userId)));
+            }
+        }
+        long[] followerIds = followersByUser.remove(userId);
+        if (followerIds != null) {
+            for (long followerId : followerIds) {
+                friendsByUser.computeIfPresent(followerId, (id, ids) -> emptyToNull(remove(ids, userId)));
+            }
+        }
+    }
+
+    public long[] getFriendIds(long userId) {
+        return friendsByUser.getOrDefault(userId, EMPTY);
+    }
+
+    public boolean isFriend(long userId, long friendId) {
+        return Arrays.binarySearch(getFriendIds(userId), friendId) >= 0;
+    }
+
+    public long[] getFollowerIds(long userId) {
+        return followersByUser.getOrDefault(userId, EMPTY);
+    }
+
+    public List<Long> getCommonFriendIds(long userId, long otherUserId) {
+        return intersection(getFriendIds(userId), getFriendIds(otherUserId));
+    }
+
+    public List<Long> getSuggestedFriendIds(long userId, int limit) {
+        long[] candidates = collectSecondDegree(userId);
+        long[] heapIds = new long[limit];
+        int[] heapCounts = new int[limit];
+        int heapSize = 0;
+        int start = 0;
+        for (int i = 1; i <= candidates.length; i++) {
+            if (i == candidates.length || candidates[i] != candidates[start]) {
+                long candidateId = candidates[start];
+                int mutualFriends = i - start;
+                if (heapSize < limit) {
+                    heapIds[heapSize] = candidateId;
+                    heapCounts[heapSize] = mutualFriends;
+                    siftUp(heapIds, heapCounts, heapSize++);
+                } else if (ranksAbove(mutualFriends, candidateId, heapCounts[0], heapIds[0])) {
+                    heapIds[0] = candidateId;
+                    heapCounts[0] = mutualFriends;
+                    siftDown(heapIds, heapCounts, heapSize);
+                }
+                start = i;
+            }
+        }
+        Long[] result = new Long[heapSize];
+        while (heapSize > 0) {
+            result[heapSize - 1] = heapIds[0];
+            heapSize--;
+            heapIds[0] = heapIds[heapSize];
+            heapCounts[0] = heapCounts[heapSize];
+            siftDown(heapIds, heapCounts, heapSize);
+        }
+        return Arrays.asList(result);
+    }
+
+    public Map<Long, Integer> countFriendsOfFriends(long userId) {
+        long[] candidates = collectSecondDegree(userId);
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        int start = 0;
+        for (int i = 1; i <= candidates.length; i++) {
+            if (i == candidates.length || candidates[i] != candidates[start]) {
+                counts.put(candidates[start], i - start);
+                start = i;
+            }
+        }
+        return counts;
+    }
+
+    private long[] collectSecondDegree(long userId) {
+        long[] friendIds = getFriendIds(userId);
+        long[][] secondLevel = new long[friendIds.length][];
+        int total = 0;
+        for (int i = 0; i < friendIds.length; i++) {
+            secondLevel[i] = getFriendIds(friendIds[i]);
+            total += secondLevel[i].length;
+        }
+        long[] candidates = new long[total];
+        int size = 0;
+        for (long[] ids : secondLevel) {
+            for (long candidateId : ids) {
+                if (candidateId != userId && Arrays.binarySearch(friendIds, candidateId) < 0) {
+                    candidates[size++] = candidateId;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, size);
+        return size == total ? candidates : Arrays.copyOf(candidates, size);
+    }
+
+    private static boolean ranksAbove(int count, long id, int otherCount, long otherId) {
+        return count > otherCount || count == otherCount && id < otherId;
+    }
+
+    private static void siftUp(long[] ids, int[] counts, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksAbove(counts[parent], ids[parent], counts[index], ids[index])) {
+                return;
+            }
+            swap(ids, counts, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, int[] counts, int size) {
+        int index = 0;
+        while (true) {
+            int lowest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (ranksAbove(counts[lowest], ids[lowest], counts[child], ids[child])) {
+                    lowest = child;
+                }
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(ids, counts, index, lowest);
+            index = lowest;
+        }
+    }
+
+    private static void swap(long[] ids, int[] counts, int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        int count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+final class LongPairHashSet {
+
+    private long[] firsts;
+    private long[] seconds;
+    private boolean[] used;
+    private int size;
+
+    LongPairHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        firsts = new long[capacity];
+        seconds = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    boolean add(long first, long second) {
+        if ((size + 1) * 2 > used.length) {
+            resize();
+        }
+        int mask = used.length - 1;
+        int slot = hash(first, second) & mask;
+        while (used[slot]) {
+            if (firsts[slot] == first && seconds[slot] == second) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        firsts[slot] = first;
+        seconds[slot] = second;
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldFirsts = firsts;
+        long[] oldSeconds = seconds;
+        boolean[] oldUsed = used;
+        firsts = new long[oldUsed.length * 2];
+        seconds = new long[oldUsed.length * 2];
+        used = new boolean[oldUsed.length * 2];
+        size = 0;
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                add(oldFirsts[i], oldSeconds[i]);
+            }
+        }
+    }
+
+    private static int hash(long first, long second) {
+        long h = first * 0x9E3779B97F4A7C15L + second;
+        h ^= h >>> 32;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 29));
+    }
+}
@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Component
+@Slf4j
+public class PopularFilmsIndex {
+
+    private static final Comparator<RankKey> BY_RATE_DESC = Comparator
+            .comparingLong((RankKey key) -> key.rate).reversed()
+            .thenComparingLong(key -> key.filmId);
+
+    private final ConcurrentMap<Long, FilmRank> films = new ConcurrentHashMap<>();
+    private final NavigableSet<RankKey> all = new ConcurrentSkipListSet<>(BY_RATE_DESC);
+    private final ConcurrentMap<Integer, NavigableSet<RankKey>> byGenre = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, NavigableSet<RankKey>> byYear = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, NavigableSet<RankKey>> byGenreAndYear = new ConcurrentHashMap<>();
+
+    public PopularFilmsIndex(JdbcTemplate jdbcTemplate) {
+        Map<Long, Set<Integer>> genres = new HashMap<>();
+        jdbcTemplate.query("SELECT FILM_ID, GENRE_ID FROM \"films_genres\";", (RowCallbackHandler) rs ->
+                genres.computeIfAbsent(rs.getLong("FILM_ID"), id -> new HashSet<>()).add(rs.getInt("GENRE_ID")));
+        jdbcTemplate.query("SELECT FILM_ID, RATE, RELEASE_DATE FROM \"films\";", (RowCallbackHandler) rs -> {
+            long filmId = rs.getLong("FILM_ID");
+            Date releaseDate = rs.getDate("RELEASE_DATE");
+            insert(new FilmRank(filmId, rs.getLong("RATE"),
+                    releaseDate == null ? null : releaseDate.toLocalDate().getYear(),
+                    genres.getOrDefault(filmId, Set.of())));
+        });
+        log.info("Индекс популярных фильмов построен, фильмов = {}", films.size());
+    }
+
+    public synchronized void putFilm(long filmId, long rate, LocalDate releaseDate, Collection<Integer> genreIds) {
+        FilmRank previous = films.get(filmId);
+        if (previous != null) {
+            remove(previous);
+        }
+        insert(new FilmRank(filmId, rate, releaseDate == null ? null : releaseDate.getYear(), new HashSet<>(genreIds)));
+    }
+
+    public synchronized void updateFilm(long filmId, LocalDate releaseDate, Collection<Integer> genreIds) {
+        FilmRank previous = films.get(filmId);
+        if (previous != null) {
+            putFilm(filmId, previous.key.rate, releaseDate, genreIds);
+        }
+    }
+
+    public synchronized void changeRate(long filmId, long delta) {
+        FilmRank previous = films.get(filmId);
+        if (previous == null || delta == 0) {
+            return;
+        }
+        insert(new FilmRank(filmId, previous.key.rate + delta, previous.year, previous.genreIds));
+        remove(previous);
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        FilmRank previous = films.remove(filmId);
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    public List<Long> getPopularFilmIds(Integer genreId, Integer year, int count) {
+        NavigableSet<RankKey> ranking;
+        if (genreId == null && year == null) {
+            ranking = all;
+        } else if (year == null) {
+            ranking = byGenre.get(genreId);
+        } else if (genreId == null) {
+            ranking = byYear.get(year);
+        } else {
+            ranking = byGenreAndYear.get(genreAndYear(genreId, year));
+        }
+        if (ranking == null) {
+            return List.of();
+        }
+        Set<Long> filmIds = new LinkedHashSet<>();
+        Iterator<RankKey> iterator = ranking.iterator();
+        while (filmIds.size() < count && iterator.hasNext()) {
+            filmIds.add(iterator.next().filmId);
+        }
+        return new ArrayList<>(filmIds);
+    }
+
+    private void insert(FilmRank rank) {
+        films.put(rank.key.filmId, rank);
+        all.add(rank.key);
+        for (int genreId : rank.genreIds) {
+            partition(byGenre, genreId).add(rank.key);
+        }
+        if (rank.year != null) {
+            partition(byYear, rank.year).add(rank.key);
+            for (int genreId : rank.genreIds) {
+                partition(byGenreAndYear, genreAndYear(genreId, rank.year)).add(rank.key);
+            }
+        }
+    }
+
+    private void remove(FilmRank rank) {
+        all.remove(rank.key);
+        for (int genreId : rank.genreIds) {
+            partition(byGenre, genreId).remove(rank.key);
+        }
+        if (rank.year != null) {
+            partition(byYear, rank.year).remove(rank.key);
+            for (int genreId : rank.genreIds) {
+                partition(byGenreAndYear, genreAndYear(genreId, rank.year)).remove(rank.key);
+            }
+        }
+    }
+
+    private static <K> NavigableSet<RankKey> partition(ConcurrentMap<K, NavigableSet<RankKey>> partitions, K key) {
+        return partitions.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(BY_RATE_DESC));
+    }
+
+    private static long genreAndYear(int genreId, int year) {
+        return ((long) genreId << 32) | (year & 0xFFFFFFFFL);
+    }
+
+    private static final class RankKey {
+        private final long rate;
+        private final long filmId;
+
+        private RankKey(long rate, long filmId) {
+            this.rate = rate;
+            this.filmId = filmId;
+        }
+    }
+
+    private static final class FilmRank {
+        private final RankKey key;
+        private final Integer year;
+        private final Set<Integer> genreIds;
+
+        private FilmRank(long filmId, long rate, Integer year, Set<Integer> genreIds) {
+            this.key = new RankKey(rate, filmId);
+            this.year = year;
+            this.genreIds = genreIds;
+        }
+    }
+}
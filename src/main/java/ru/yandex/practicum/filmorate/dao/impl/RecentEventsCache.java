@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.entity.Event;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+@Component
+public class RecentEventsCache {
+
+    private final int eventsPerUser;
+    private final Map<Long, RecentEvents> users;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecentEventsCache(@Value("${filmorate.events.recent-cache.events-per-user:0}") int eventsPerUser,
+                             @Value("${filmorate.events.recent-cache.max-users:10000}") int maxUsers) {
+        this.eventsPerUser = eventsPerUser;
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RecentEvents> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public boolean covers(int limit) {
+        return eventsPerUser > 0 && limit <= eventsPerUser;
+    }
+
+    public int getEventsPerUser() {
+        return eventsPerUser;
+    }
+
+    public RecentEvents get(long userId, LongFunction<List<Event>> loader) {
+        synchronized (users) {
+            RecentEvents recentEvents = users.get(userId);
+            if (recentEvents != null) {
+                return recentEvents;
+            }
+        }
+        long loadedAt = generation.get();
+        List<Event> events = loader.apply(userId);
+        RecentEvents recentEvents = new RecentEvents(events, events.size() < eventsPerUser);
+        synchronized (users) {
+            if (generation.get() == loadedAt) {
+                users.put(userId, recentEvents);
+            }
+        }
+        return recentEvents;
+    }
+
+    public void evict(Collection<Long> userIds) {
+        synchronized (users) {
+            generation.incrementAndGet();
+            userIds.forEach(users::remove);
+        }
+    }
+
+    static class RecentEvents {
+
+        private final List<Event> events;
+        private final boolean complete;
+
+        RecentEvents(List<Event> events, boolean complete) {
+            this.events = List.copyOf(events);
+            this.complete = complete;
+        }
+
+        Optional<List<Event>> window(long since, long until, int limit) {
+            List<Event> matching = new ArrayList<>();
+            for (Event event : events) {
+                if (event.getTimestamp() >= since && event.getTimestamp() < until) {
+                    matching.add(event);
+                }
+            }
+            boolean coversWindow = complete || events.isEmpty() || since > events.get(0).getTimestamp();
+            if (matching.size() < limit && !coversWindow) {
+                return Optional.empty();
+            }
+            int from = Math.max(0, matching.size() - limit);
+            return Optional.of(new ArrayList<>(matching.subList(from, matching.size())));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+final class ReferenceSnapshot<T> {
+
+    private final long[] ids;
+    private final List<T> values;
+    private final ToLongFunction<T> idExtractor;
+
+    private ReferenceSnapshot(long[] ids, List<T> values, ToLongFunction<T> idExtractor) {
+        this.ids = ids;
+        this.values = values;
+        this.idExtractor = idExtractor;
+    }
+
+    static <T> ReferenceSnapshot<T> of(Collection<T> items, ToLongFunction<T> idExtractor) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingLong(idExtractor));
+        long[] ids = new long[sorted.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idExtractor.applyAsLong(sorted.get(i));
+        }
+        return new ReferenceSnapshot<>(ids, Collections.unmodifiableList(sorted), idExtractor);
+    }
+
+    Optional<T> get(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index < 0 ? Optional.empty() : Optional.of(values.get(index));
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    List<T> values() {
+        return values;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    ReferenceSnapshot<T> with(T item) {
+        Map<Long, T> items = toMap();
+        items.put(idExtractor.applyAsLong(item), item);
+        return of(items.values(), idExtractor);
+    }
+
+    ReferenceSnapshot<T> without(long id) {
+        Map<Long, T> items = toMap();
+        items.remove(id);
+        return of(items.values(), idExtractor);
+    }
+
+    private Map<Long, T> toMap() {
+        Map<Long, T> items = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            items.put(ids[i], values.get(i));
+        }
+        return items;
+    }
+}
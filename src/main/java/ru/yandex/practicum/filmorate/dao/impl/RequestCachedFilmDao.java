@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.FilmDao;
+import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Component
+@Primary
+@RequiredArgsConstructor
+public class RequestCachedFilmDao implements FilmDao {
+
+    private final FilmDaoImpl filmDao;
+
+    private final RequestIdentityMap<Film> films = new RequestIdentityMap<>("films");
+
+    @Override
+    public Optional<Film> getFilmById(long id) {
+        return films.get(id, filmDao::getFilmById);
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmDao.getFilms();
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        return filmDao.getFilms(afterId, limit);
+    }
+
+    @Override
+    public void streamFilms(Consumer<Film> consumer) {
+        filmDao.streamFilms(consumer);
+    }
+
+    @Override
+    public Long addFilm(Film film) {
+        Long id = filmDao.addFilm(film);
+        films.evict(id);
+        return id;
+    }
+
+    @Override
+    public List<Long> addFilms(List<Film> newFilms) {
+        List<Long> ids = filmDao.addFilms(newFilms);
+        ids.forEach(films::evict);
+        return ids;
+    }
+
+    @Override
+    public void updateFilm(Film film) {
+        films.evict(film.getId());
+        filmDao.updateFilm(film);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return filmDao.getPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getPopularFilmsByGenreAndYear(Integer genreId, Integer year, int count) {
+        return filmDao.getPopularFilmsByGenreAndYear(genreId, year, count);
+    }
+
+    @Override
+    public List<Film> getFilmsByDirectorIdForYear(long directorId) {
+        return filmDao.getFilmsByDirectorIdForYear(directorId);
+    }
+
+    @Override
+    public List<Film> getFilmsByDirectorIdForLikes(long directorId) {
+        return filmDao.getFilmsByDirectorIdForLikes(directorId);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        films.evict(filmId);
+        return filmDao.addLike(filmId, userId);
+    }
+
+    @Override
+    public List<FilmLikes> addLikes(List<FilmLikes> likes) {
+        List<FilmLikes> added = filmDao.addLikes(likes);
+        added.forEach(like -> films.evict(like.getFilmId()));
+        return added;
+    }
+
+    @Override
+    public boolean deleteLike(long filmId, long userId) {
+        films.evict(filmId);
+        return filmDao.deleteLike(filmId, userId);
+    }
+
+    @Override
+    public List<FilmLikes> findAllFilmLikes() {
+        return filmDao.findAllFilmLikes();
+    }
+
+    @Override
+    public void deleteFilmByFilmId(long filmId) {
+        films.evict(filmId);
+        filmDao.deleteFilmByFilmId(filmId);
+    }
+
+    @Override
+    public List<Film> searchFilms(String query, boolean byTitle, boolean byDirector) {
+        return filmDao.searchFilms(query, byTitle, byDirector);
+    }
+
+    @Override
+    public List<Film> searchFilmsWithDirectorAndTitle(String query) {
+        return filmDao.searchFilmsWithDirectorAndTitle(query);
+    }
+
+    @Override
+    public List<Film> searchFilmsWithDirector(String query) {
+        return filmDao.searchFilmsWithDirector(query);
+    }
+
+    @Override
+    public List<Film> searchFilmsWithTitle(String query) {
+        return filmDao.searchFilmsWithTitle(query);
+    }
+
+    @Override
+    public List<Film> getFilmsLikedByUser(long userId) {
+        return filmDao.getFilmsLikedByUser(userId);
+    }
+
+    @Override
+    public void streamFilmsLikedByUser(long userId, Consumer<Film> consumer) {
+        filmDao.streamFilmsLikedByUser(userId, consumer);
+    }
+
+    @Override
+    public List<Film> getCommonFilms(long userId, long otherUserId) {
+        return filmDao.getCommonFilms(userId, otherUserId);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Long> filmIds) {
+        return filmDao.getFilmsByIds(filmIds);
+    }
+
+    @Override
+    public List<Long> getRecommendedFilmIds(long userId) {
+        return filmDao.getRecommendedFilmIds(userId);
+    }
+
+    @Override
+    public boolean isFilmLikeExist(long filmId, long userId) {
+        return filmDao.isFilmLikeExist(filmId, userId);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.UserDao;
+import ru.yandex.practicum.filmorate.entity.user.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Component
+@Primary
+@RequiredArgsConstructor
+public class RequestCachedUserDao implements UserDao {
+
+    private final UserDaoImpl userDao;
+
+    private final RequestIdentityMap<User> users = new RequestIdentityMap<>("users");
+
+    @Override
+    public List<User> getUsers() {
+        return userDao.getUsers();
+    }
+
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        return userDao.getUsers(afterId, limit);
+    }
+
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        userDao.streamUsers(consumer);
+    }
+
+    @Override
+    public Long addUser(User user) {
+        Long id = userDao.addUser(user);
+        users.evict(id);
+        return id;
+    }
+
+    @Override
+    public List<Long> addUsers(List<User> newUsers) {
+        List<Long> ids = userDao.addUsers(newUsers);
+        ids.forEach(users::evict);
+        return ids;
+    }
+
+    @Override
+    public void updateUser(User user) {
+        users.evict(user.getId());
+        userDao.updateUser(user);
+    }
+
+    @Override
+    public Optional<User> getUserById(long id) {
+        return users.get(id, userDao::getUserById);
+    }
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        userDao.addFriend(userId, friendId);
+    }
+
+    @Override
+    public void deleteFriend(long userId, long friendId) {
+        userDao.deleteFriend(userId, friendId);
+    }
+
+    @Override
+    public Set<User> getUserFriends(long id) {
+        return userDao.getUserFriends(id);
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherUserId) {
+        return userDao.getCommonFriends(userId, otherUserId);
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(long userId, int limit) {
+        return userDao.getFriendSuggestions(userId, limit);
+    }
+
+    @Override
+    public void deleteUserById(long userId) {
+        users.evict(userId);
+        userDao.deleteUserById(userId);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+final class RequestIdentityMap<T> {
+
+    private final String attributeName;
+
+    RequestIdentityMap(String attributeName) {
+        this.attributeName = RequestIdentityMap.class.getName() + "." + attributeName;
+    }
+
+    Optional<T> get(long id, LongFunction<Optional<T>> loader) {
+        Map<Long, Optional<T>> entities = entities(true);
+        if (entities == null) {
+            return loader.apply(id);
+        }
+        Optional<T> entity = entities.get(id);
+        if (entity == null) {
+            entity = loader.apply(id);
+            entities.put(id, entity);
+        }
+        return entity;
+    }
+
+    void evict(long id) {
+        Map<Long, Optional<T>> entities = entities(false);
+        if (entities != null) {
+            entities.remove(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Optional<T>> entities(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Long, Optional<T>> entities =
+                (Map<Long, Optional<T>>) attributes.getAttribute(attributeName, RequestAttributes.SCOPE_REQUEST);
+        if (entities == null && create) {
+            entities = new HashMap<>();
+            attributes.setAttribute(attributeName, entities, RequestAttributes.SCOPE_REQUEST);
+        }
+        return entities;
+    }
+}
@@ -3,10 +3,12 @@ package ru.yandex.practicum.filmorate.dao.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.ReviewDao;
 import ru.yandex.practicum.filmorate.entity.Review;
 import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
@@ -15,9 +17,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
 @Component
 @Slf4j
@@ -25,6 +25,7 @@ import java.util.Optional;
 public class ReviewDaoImpl implements ReviewDao {
 
     private final JdbcTemplate jdbcTemplate;
+    private final ReviewRankingIndex reviewRankingIndex;
 
     @Override
     public Optional<Review> getReviewById(long id) {
@@ -48,8 +49,7 @@ public class ReviewDaoImpl implements ReviewDao {
 
     @Override
     public List<Review> getReviews(int count) {
-        String sql = "SELECT * FROM \"reviews\" ORDER BY USEFUL DESC LIMIT ?;";
-        List<Review> reviews = jdbcTemplate.query(sql, this::mapRowToReview, count);
+        List<Review> reviews = loadReviewsByIds(reviewRankingIndex.getTopReviewIds(null, count));
         log.info("Список всех отзывов получен. Длина = {}", reviews.size());
         return reviews;
     }
@@ -71,6 +71,7 @@ public class ReviewDaoImpl implements ReviewDao {
             return preparedStatement;
         }, keyHolder);
         Long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
+        reviewRankingIndex.putReview(id, review.getFilmId(), 0);
         log.info("Отзыв с id={} добавлен", id);
         return id;
     }
@@ -90,54 +91,113 @@ public class ReviewDaoImpl implements ReviewDao {
     public void deleteReview(long id) {
         String sql = "DELETE FROM \"reviews\" WHERE REVIEW_ID = ?";
         jdbcTemplate.update(sql, id);
+        reviewRankingIndex.removeReview(id);
     }
 
     public List<Review> getReviewsByFilmId(long filmId, int count) {
-        String sql = "SELECT * FROM \"reviews\" WHERE FILM_ID = ? ORDER BY USEFUL DESC LIMIT ?";
-        List<Review> reviews = jdbcTemplate.query(sql, this::mapRowToReview, filmId, count);
-        log.info(" популярных отзывов получен. Длина = {} , count = {}", reviews.size(), count);
+        List<Review> reviews = loadReviewsByIds(reviewRankingIndex.getTopReviewIds(filmId, count));
+        log.info("Список популярных отзывов получен. Длина = {} , count = {}", reviews.size(), count);
         return reviews;
 
     }
 
     @Override
-    public void addLike(long reviewId, long userId) {
-        String sql = "INSERT INTO \"review_likes\" (REVIEW_ID,USER_ID,IS_LIKED) VALUES(?,?,true)";
-        jdbcTemplate.update(sql, reviewId, userId);
-        String sqlReviews = "UPDATE \"reviews\" SET USEFUL = USEFUL + 1 WHERE REVIEW_ID = ?;";
-        jdbcTemplate.update(sqlReviews, reviewId);
-        log.info("Отзыву id={} поставил лайк пользователь id={}", reviewId, userId);
-        log.info("измененный отзыв" + getReviewById(reviewId));
+    @Transactional
+    public boolean addLike(long reviewId, long userId) {
+        return setReaction(reviewId, userId, Reaction.LIKE);
     }
 
     @Override
-    public void addDislike(long reviewId, long userId) {
-        String sql = "INSERT INTO \"review_likes\" (REVIEW_ID,USER_ID,IS_LIKED) VALUES(?,?,false)";
-        jdbcTemplate.update(sql, reviewId, userId);
-        String sqlReviews = "UPDATE \"reviews\" SET USEFUL = USEFUL - 1 WHERE REVIEW_ID = ?;";
-        jdbcTemplate.update(sqlReviews, reviewId);
-        log.info("Отзыву id={} поставил дизлайк пользователь id={}", reviewId, userId);
-        log.info("измененный отзыв" + getReviewById(reviewId));
+    @Transactional
+    public boolean addDislike(long reviewId, long userId) {
+        return setReaction(reviewId, userId, Reaction.DISLIKE);
     }
 
     @Override
-    public void deleteLike(long reviewId, long userId) {
-        String sql = "DELETE FROM \"review_likes\" WHERE REVIEW_ID = ? AND USER_ID = ?";
-        jdbcTemplate.update(sql, reviewId, userId);
-        String sqlReviews = "UPDATE \"reviews\" SET USEFUL = USEFUL - 1 WHERE REVIEW_ID = ?;";
-        jdbcTemplate.update(sqlReviews, reviewId);
-        log.info("Отзыву id={} удалили лайк пользователя id={}", reviewId, userId);
-        log.info("измененный отзыв" + getReviewById(reviewId));
+    @Transactional
+    public boolean deleteLike(long reviewId, long userId) {
+        return removeReaction(reviewId, userId, Reaction.LIKE);
     }
 
     @Override
-    public void deleteDislike(long reviewId, long userId) {
+    @Transactional
+    public boolean deleteDislike(long reviewId, long userId) {
+        return removeReaction(reviewId, userId, Reaction.DISLIKE);
+    }
+
+    private boolean setReaction(long reviewId, long userId, Reaction reaction) {
+        Optional<Reaction> previous = lockReaction(reviewId, userId);
+        if (previous.isEmpty()) {
+            return false;
+        }
+        long delta = reaction.weight - previous.get().weight;
+        if (delta == 0) {
+            log.info("Реакция пользователя id={} на отзыв id={} не изменилась", userId, reviewId);
+            return true;
+        }
+        String sql = "MERGE INTO \"review_likes\" (REVIEW_ID, USER_ID, IS_LIKED) KEY (REVIEW_ID, USER_ID) " +
+                "VALUES (?, ?, ?)";
+        jdbcTemplate.update(sql, reviewId, userId, reaction == Reaction.LIKE);
+        changeUseful(reviewId, delta);
+        log.info("Реакция пользователя id={} на отзыв id={} изменена: {} -> {}",
+                userId, reviewId, previous.get(), reaction);
+        return true;
+    }
+
+    private boolean removeReaction(long reviewId, long userId, Reaction reaction) {
+        Optional<Reaction> previous = lockReaction(reviewId, userId);
+        if (previous.isEmpty()) {
+            return false;
+        }
+        if (previous.get() != reaction) {
+            log.info("У отзыва id={} нет реакции {} пользователя id={}", reviewId, reaction, userId);
+            return true;
+        }
         String sql = "DELETE FROM \"review_likes\" WHERE REVIEW_ID = ? AND USER_ID = ?";
         jdbcTemplate.update(sql, reviewId, userId);
-        String sqlReviews = "UPDATE \"reviews\" SET USEFUL = USEFUL + 1 WHERE REVIEW_ID = ?;";
-        jdbcTemplate.update(sqlReviews, reviewId);
-        log.info("Отзыву id={} удалили дизлайк пользователя id={}", reviewId, userId);
-        log.info("измененный отзыв" + getReviewById(reviewId));
+        changeUseful(reviewId, -reaction.weight);
+        log.info("У отзыва id={} удалена реакция {} пользователя id={}", reviewId, reaction, userId);
+        return true;
+    }
+
+    private Optional<Reaction> lockReaction(long reviewId, long userId) {
+        String sql = "SELECT rl.IS_LIKED FROM \"reviews\" r LEFT JOIN \"review_likes\" rl " +
+                "ON rl.REVIEW_ID = r.REVIEW_ID AND rl.USER_ID = ? WHERE r.REVIEW_ID = ? FOR UPDATE";
+        List<Reaction> reactions = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            boolean liked = rs.getBoolean("IS_LIKED");
+            return rs.wasNull() ? Reaction.NONE : liked ? Reaction.LIKE : Reaction.DISLIKE;
+        }, userId, reviewId);
+        if (reactions.isEmpty()) {
+            log.info("Отзыв с id = {} не найден.", reviewId);
+            return Optional.empty();
+        }
+        return Optional.of(reactions.get(0));
+    }
+
+    private void changeUseful(long reviewId, long delta) {
+        jdbcTemplate.update("UPDATE \"reviews\" SET USEFUL = USEFUL + ? WHERE REVIEW_ID = ?", delta, reviewId);
+        reviewRankingIndex.changeUseful(reviewId, delta);
+    }
+
+    private List<Review> loadReviewsByIds(List<Long> reviewIds) {
+        if (reviewIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT * FROM \"reviews\" WHERE REVIEW_ID IN (" +
+                String.join(", ", Collections.nCopies(reviewIds.size(), "?")) + ")";
+        Map<Long, Review> reviewsById = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            Review review = mapRowToReview(rs, 0);
+            reviewsById.put(review.getReviewId(), review);
+        }, reviewIds.toArray());
+        List<Review> reviews = new ArrayList<>(reviewIds.size());
+        for (Long reviewId : reviewIds) {
+            Review review = reviewsById.get(reviewId);
+            if (review != null) {
+                reviews.add(review);
+            }
+        }
+        return reviews;
     }
 
     private Review mapRowToReview(ResultSet resultSet, int rowNum) throws SQLException {
@@ -150,4 +210,14 @@ public class ReviewDaoImpl implements ReviewDao {
                 .useful(resultSet.getInt("USEFUL"))
                 .build();
     }
+
+    private enum Reaction {
+        NONE(0), LIKE(1), DISLIKE(-1);
+
+        private final long weight;
+
+        Reaction(long weight) {
+            this.weight = weight;
+        }
+    }
 }
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Component
+@Slf4j
+public class ReviewRankingIndex {
+
+    private static final Comparator<RankKey> BY_USEFUL_DESC = Comparator
+            .comparingLong((RankKey key) -> key.useful).reversed()
+            .thenComparingLong(key -> key.reviewId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<Long, ReviewRank> reviews = new ConcurrentHashMap<>();
+    private final NavigableSet<RankKey> all = new ConcurrentSkipListSet<>(BY_USEFUL_DESC);
+    private final ConcurrentMap<Long, NavigableSet<RankKey>> byFilm = new ConcurrentHashMap<>();
+
+    public ReviewRankingIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        reviews.clear();
+        all.clear();
+        byFilm.clear();
+        jdbcTemplate.query("SELECT REVIEW_ID, FILM_ID, USEFUL FROM \"reviews\";", (RowCallbackHandler) rs ->
+                insert(new ReviewRank(rs.getLong("REVIEW_ID"), rs.getLong("FILM_ID"), rs.getLong("USEFUL"))));
+        log.info("Индекс полезности отзывов построен, отзывов = {}", reviews.size());
+    }
+
+    public synchronized void putReview(long reviewId, long filmId, long useful) {
+        removeReview(reviewId);
+        insert(new ReviewRank(reviewId, filmId, useful));
+    }
+
+    public synchronized void changeUseful(long reviewId, long delta) {
+        ReviewRank previous = reviews.get(reviewId);
+        if (previous == null || delta == 0) {
+            return;
+        }
+        insert(new ReviewRank(reviewId, previous.filmId, previous.key.useful + delta));
+        remove(previous);
+    }
+
+    public synchronized void removeReview(long reviewId) {
+        ReviewRank previous = reviews.remove(reviewId);
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    public synchronized void removeFilm(long filmId) {
+        NavigableSet<RankKey> ranking = byFilm.remove(filmId);
+        if (ranking != null) {
+            for (RankKey key : ranking) {
+                reviews.remove(key.reviewId);
+                all.remove(key);
+            }
+        }
+    }
+
+    public List<Long> getTopReviewIds(Long filmId, int count) {
+        NavigableSet<RankKey> ranking = filmId == null ? all : byFilm.get(filmId);
+        if (ranking == null) {
+            return List.of();
+        }
+        Set<Long> reviewIds = new LinkedHashSet<>();
+        Iterator<RankKey> iterator = ranking.iterator();
+        while (reviewIds.size() < count && iterator.hasNext()) {
+            reviewIds.add(iterator.next().reviewId);
+        }
+        return new ArrayList<>(reviewIds);
+    }
+
+    private void insert(ReviewRank rank) {
+        reviews.put(rank.key.reviewId, rank);
+        all.add(rank.key);
+        byFilm.computeIfAbsent(rank.filmId, id -> new ConcurrentSkipListSet<>(BY_USEFUL_DESC)).add(rank.key);
+    }
+
+    private void remove(ReviewRank rank) {
+        all.remove(rank.key);
+        byFilm.computeIfPresent(rank.filmId, (id, ranking) -> {
+            ranking.remove(rank.key);
+            return ranking.isEmpty() ? null : ranking;
+        });
+    }
+
+    private static final class RankKey {
+        private final long useful;
+        private final long reviewId;
+
+        private RankKey(long useful, long reviewId) {
+            this.useful = useful;
+            this.reviewId = reviewId;
+        }
+    }
+
+    private static final class ReviewRank {
+        private final RankKey key;
+        private final long filmId;
+
+        private ReviewRank(long reviewId, long filmId, long useful) {
+            this.key = new RankKey(useful, reviewId);
+            this.filmId = filmId;
+        }
+    }
+}
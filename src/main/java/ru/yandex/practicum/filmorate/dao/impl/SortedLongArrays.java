@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class SortedLongArrays {
+
+    static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    static List<Long> difference(long[] source, long[] excluded) {
+        List<Long> result = new ArrayList<>();
+        int j = 0;
+        for (long value : source) {
+            while (j < excluded.length && excluded[j] < value) {
+                j++;
+            }
+            if (j == excluded.length || excluded[j] != value) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    static List<Long> intersection(long[] first, long[] second) {
+        List<Long> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result.add(first[i]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    static long[] toSortedArray(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    static long[] insert(long[] values, long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        int position = -index - 1;
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    static long[] remove(long[] values, long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    static long[] emptyToNull(long[] values) {
+        return values.length == 0 ? null : values;
+    }
+}
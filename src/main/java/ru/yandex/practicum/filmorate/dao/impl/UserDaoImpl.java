@@ -2,24 +2,38 @@ package ru.yandex.practicum.filmorate.dao.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.dao.UserDao;
 import ru.yandex.practicum.filmorate.entity.user.User;
 
 import java.sql.Date;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class UserDaoImpl implements UserDao {
 
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)";
+
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final FilmLikesIndex filmLikesIndex;
+    private final FriendshipIndex friendshipIndex;
+    private final FriendTimeline friendTimeline;
+    private final ReviewRankingIndex reviewRankingIndex;
 
     @Override
     public List<User> getUsers() {
@@ -29,16 +43,35 @@ public class UserDaoImpl implements UserDao {
         return users;
     }
 
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        String sql = "SELECT * FROM \"users\" u WHERE USER_ID > ? ORDER BY USER_ID LIMIT ?";
+        List<User> users = jdbcTemplate.query(sql, this::mapRowToUser, afterId, limit);
+        log.info("Страница пользователей после id={} получена. Длина = {}", afterId, users.size());
+        return users;
+    }
+
+    @Override
+    public void streamUsers(Consumer<User> consumer) {
+        String sql = "SELECT * FROM \"users\" u WHERE USER_ID > ? ORDER BY USER_ID LIMIT ?";
+        long afterId = 0;
+        List<User> chunk;
+        do {
+            chunk = jdbcTemplate.query(sql, this::mapRowToUser, afterId, STREAM_CHUNK_SIZE);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+        log.info("Выгрузка списка пользователей завершена");
+    }
+
     @Override
     public Long addUser(User user) {
-        String sql = "INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(conn -> {
-            PreparedStatement preparedStatement = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            preparedStatement.setString(1, user.getEmail().strip());
-            preparedStatement.setString(2, user.getLogin().strip());
-            preparedStatement.setString(3, user.getName().strip());
-            preparedStatement.setDate(4, Date.valueOf(user.getBirthday()));
+            PreparedStatement preparedStatement = conn.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS);
+            setUserParameters(preparedStatement, user);
             return preparedStatement;
         }, keyHolder);
         Long id = Objects.requireNonNull(keyHolder.getKey()).longValue();
@@ -46,6 +79,37 @@ public class UserDaoImpl implements UserDao {
         return id;
     }
 
+    @Override
+    @Transactional
+    public List<Long> addUsers(List<User> users) {
+        List<Long> ids = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<List<Long>>) conn -> {
+            try (PreparedStatement preparedStatement =
+                         conn.prepareStatement(INSERT_USER_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (User user : users) {
+                    setUserParameters(preparedStatement, user);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                List<Long> keys = new ArrayList<>(users.size());
+                try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        keys.add(generatedKeys.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        }));
+        log.info("Пакетом добавлено пользователей: {}", ids.size());
+        return ids;
+    }
+
+    private static void setUserParameters(PreparedStatement preparedStatement, User user) throws SQLException {
+        preparedStatement.setString(1, user.getEmail() == null ? null : user.getEmail().strip());
+        preparedStatement.setString(2, user.getLogin().strip());
+        preparedStatement.setString(3, user.getName() == null ? null : user.getName().strip());
+        preparedStatement.setDate(4, user.getBirthday() == null ? null : Date.valueOf(user.getBirthday()));
+    }
+
     @Override
     public void updateUser(User user) {
         String sql = "UPDATE \"users\" SET EMAIL = ?, LOGIN = ?, NAME = ?, BIRTHDAY = ? WHERE USER_ID = ?";
@@ -79,10 +143,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public Set<User> getUserFriends(long id) {
-        String sql = "SELECT u.USER_ID, u.EMAIL, u.LOGIN, u.NAME, u.BIRTHDAY FROM \"user_friends\" AS uf\n" +
-                "INNER JOIN \"users\" u ON uf.FRIEND_USER_ID = u.USER_ID \n" +
-                "WHERE uf.USER_ID = ? ORDER BY u.USER_ID ASC;";
-        List<User> friendsList = jdbcTemplate.query(sql, this::mapRowToUser, id);
+        List<User> friendsList = loadUsersByIds(friendshipIndex.getFriendIds(id));
         log.info("Получен список друзей пользователя с id = {}, длина списка = {}", id, friendsList.size());
         Set<User> userSet = new TreeSet<>(Comparator.comparing(User::getId));
         userSet.addAll(friendsList);
@@ -90,9 +151,55 @@ public class UserDaoImpl implements UserDao {
     }
 
     @Override
+    public List<User> getCommonFriends(long userId, long otherUserId) {
+        List<Long> commonFriendIds = friendshipIndex.getCommonFriendIds(userId, otherUserId);
+        List<User> commonFriends = loadUsersByIds(commonFriendIds.stream().mapToLong(Long::longValue).toArray());
+        log.info("Получен список общих друзей пользователей с id = {} и {}, длина списка = {}",
+                userId, otherUserId, commonFriends.size());
+        return commonFriends;
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(long userId, int limit) {
+        List<Long> suggestedIds = friendshipIndex.getSuggestedFriendIds(userId, limit);
+        Map<Long, User> usersById = new HashMap<>();
+        loadUsersByIds(suggestedIds.stream().mapToLong(Long::longValue).toArray())
+                .forEach(user -> usersById.put(user.getId(), user));
+        List<User> suggestions = new ArrayList<>(suggestedIds.size());
+        suggestedIds.forEach(id -> {
+            if (usersById.containsKey(id)) {
+                suggestions.add(usersById.get(id));
+            }
+        });
+        log.info("Для пользователя id={} подобрано возможных друзей: {}", userId, suggestions.size());
+        return suggestions;
+    }
+
+    @Override
+    @Transactional
     public void deleteUserById(long userId) {
+        List<Long> reviewIds = jdbcTemplate.queryForList("SELECT REVIEW_ID FROM \"reviews\" WHERE USER_ID = ?",
+                Long.class, userId);
+        Map<Long, Long> reactionWeights = new HashMap<>();
+        jdbcTemplate.query("SELECT rl.REVIEW_ID, SUM(CASE WHEN rl.IS_LIKED THEN 1 ELSE -1 END) AS WEIGHT " +
+                "FROM \"review_likes\" rl JOIN \"reviews\" r ON r.REVIEW_ID = rl.REVIEW_ID " +
+                "WHERE rl.USER_ID = ? AND r.USER_ID <> ? GROUP BY rl.REVIEW_ID", (RowCallbackHandler) rs ->
+                reactionWeights.put(rs.getLong("REVIEW_ID"), rs.getLong("WEIGHT")), userId, userId);
+        if (!reactionWeights.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(reactionWeights.size());
+            reactionWeights.forEach((reviewId, weight) -> rows.add(new Object[]{weight, reviewId}));
+            jdbcTemplate.batchUpdate("UPDATE \"reviews\" SET USEFUL = USEFUL - ? WHERE REVIEW_ID = ?", rows);
+        }
         String sql = "DELETE FROM \"users\" WHERE USER_ID = ?;";
         jdbcTemplate.update(sql, userId);
+        filmLikesIndex.removeUser(userId);
+        List<Long> followerIds = Arrays.stream(friendshipIndex.getFollowerIds(userId)).boxed()
+                .collect(Collectors.toList());
+        friendTimeline.invalidate(followerIds);
+        friendTimeline.removeUser(userId);
+        friendshipIndex.removeUser(userId);
+        reviewIds.forEach(reviewRankingIndex::removeReview);
+        reactionWeights.forEach((reviewId, weight) -> reviewRankingIndex.changeUseful(reviewId, -weight));
     }
 
     @Override
@@ -111,6 +218,8 @@ public class UserDaoImpl implements UserDao {
             jdbcTemplate.update(sql4, userId, friendId);
             log.info("Запрос на дружбу пользователь {} отправил пользователю {}", userId, friendId);
         }
+        friendshipIndex.addFriend(userId, friendId);
+        friendTimeline.invalidate(List.of(userId));
     }
 
     @Override
@@ -118,9 +227,22 @@ public class UserDaoImpl implements UserDao {
         String sql = "DELETE FROM \"user_friends\"  WHERE USER_ID  = ? AND FRIEND_USER_ID = ?";
         jdbcTemplate.update(sql, userId, friendId);
         jdbcTemplate.update(sql, friendId, userId);
+        friendshipIndex.removeFriend(userId, friendId);
+        friendshipIndex.removeFriend(friendId, userId);
+        friendTimeline.invalidate(List.of(userId, friendId));
         log.info("Пользователи id={} и id={} теперь не друзья", userId, friendId);
     }
 
+    private List<User> loadUsersByIds(long[] userIds) {
+        if (userIds.length == 0) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT u.USER_ID, u.EMAIL, u.LOGIN, u.NAME, u.BIRTHDAY FROM \"users\" u " +
+                "WHERE u.USER_ID IN (" + String.join(", ", Collections.nCopies(userIds.length, "?")) + ") " +
+                "ORDER BY u.USER_ID ASC;";
+        return jdbcTemplate.query(sql, this::mapRowToUser, Arrays.stream(userIds).boxed().toArray());
+    }
+
     private User mapRowToUser(ResultSet resultSet, int rowNum) throws SQLException {
         return User.builder()
                 .id(resultSet.getLong("USER_ID"))
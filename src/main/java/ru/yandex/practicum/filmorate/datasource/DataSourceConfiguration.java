@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@Slf4j
+public class DataSourceConfiguration {
+
+    static final int BACKGROUND_WRITERS = 2;
+
+    private static final int DEFAULT_REQUEST_THREADS = 200;
+
+    @Bean
+    public static BeanPostProcessor hikariTuningPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    tune((HikariDataSource) bean, environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int derivePoolSize(int processors, int requestThreads) {
+        return Math.min(requestThreads, processors * 2) + BACKGROUND_WRITERS;
+    }
+
+    private static void tune(HikariDataSource dataSource, Environment environment) {
+        int poolSize = environment.getProperty("filmorate.datasource.pool-size", Integer.class, 0);
+        if (poolSize <= 0) {
+            poolSize = derivePoolSize(Runtime.getRuntime().availableProcessors(),
+                    environment.getProperty("server.tomcat.threads.max", Integer.class, DEFAULT_REQUEST_THREADS));
+        }
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(poolSize);
+        int statementCacheSize = environment.getProperty("filmorate.datasource.statement-cache-size", Integer.class, 0);
+        String url = dataSource.getJdbcUrl();
+        if (statementCacheSize > 0 && url != null && url.startsWith("jdbc:h2:")) {
+            dataSource.addDataSourceProperty("QUERY_CACHE_SIZE", String.valueOf(statementCacheSize));
+        }
+        log.info("Пул соединений {}: размер = {}, кэш разобранных запросов = {}",
+                dataSource.getPoolName(), poolSize, statementCacheSize);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+@Component
+@Slf4j
+public class SchemaMigrator implements InitializingBean {
+
+    private static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    public synchronized int migrate() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS PUBLIC.\"schema_history\" (" +
+                "VERSION INT NOT NULL, " +
+                "DESCRIPTION CHARACTER VARYING(255) NOT NULL, " +
+                "CHECKSUM BIGINT NOT NULL, " +
+                "INSTALLED_ON TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL, " +
+                "CONSTRAINT SCHEMA_HISTORY_PK PRIMARY KEY (VERSION))");
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query("SELECT VERSION, CHECKSUM FROM \"schema_history\"", (RowCallbackHandler) rs ->
+                applied.put(rs.getInt("VERSION"), rs.getLong("CHECKSUM")));
+        int count = 0;
+        for (Migration migration : findMigrations()) {
+            Long checksum = applied.get(migration.version);
+            if (checksum == null) {
+                apply(migration);
+                count++;
+            } else if (checksum != migration.checksum) {
+                throw new IllegalStateException("Миграция V" + migration.version +
+                        " изменена после применения: " + migration.resource.getFilename());
+            }
+        }
+        log.info("Схема базы данных обновлена, применено миграций: {}, всего: {}", count, applied.size() + count);
+        return count;
+    }
+
+    private void apply(Migration migration) {
+        jdbcTemplate.execute((ConnectionCallback<Object>) connection -> {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.resource, StandardCharsets.UTF_8));
+            return null;
+        });
+        jdbcTemplate.update("INSERT INTO \"schema_history\" (VERSION, DESCRIPTION, CHECKSUM) VALUES (?, ?, ?)",
+                migration.version, migration.description, migration.checksum);
+        log.info("Применена миграция V{}: {}", migration.version, migration.description);
+    }
+
+    private List<Migration> findMigrations() {
+        Map<Integer, Migration> migrations = new TreeMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                Matcher matcher = SCRIPT_NAME.matcher(Objects.requireNonNull(resource.getFilename()));
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Некорректное имя миграции: " + resource.getFilename());
+                }
+                Migration migration = new Migration(Integer.parseInt(matcher.group(1)),
+                        matcher.group(2).replace('_', ' '), resource, checksum(resource));
+                if (migrations.put(migration.version, migration) != null) {
+                    throw new IllegalStateException("Найдено несколько миграций с версией V" + migration.version);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ArrayList<>(migrations.values());
+    }
+
+    private static long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream inputStream = resource.getInputStream()) {
+            crc.update(StreamUtils.copyToByteArray(inputStream));
+        }
+        return crc.getValue();
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final Resource resource;
+        private final long checksum;
+
+        private Migration(int version, String description, Resource resource, long checksum) {
+            this.version = version;
+            this.description = description;
+            this.resource = resource;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResult {
+
+    private int imported;
+
+    private List<RecordError> errors;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+
+        private int line;
+
+        private String message;
+    }
+}
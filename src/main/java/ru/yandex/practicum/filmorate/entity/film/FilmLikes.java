@@ -5,13 +5,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Positive;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class FilmLikes {
 
+    @Positive
     private long filmId;
 
+    @Positive
     private long userId;
 }
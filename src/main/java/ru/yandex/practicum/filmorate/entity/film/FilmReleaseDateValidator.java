@@ -10,6 +10,6 @@ public class FilmReleaseDateValidator implements ConstraintValidator<FilmRelease
 
     @Override
     public boolean isValid(LocalDate filmReleaseDate, ConstraintValidatorContext context) {
-        return filmReleaseDate.isAfter(MIN_FILM_RELEASE_DATE);
+        return filmReleaseDate != null && filmReleaseDate.isAfter(MIN_FILM_RELEASE_DATE);
     }
 }
@@ -7,6 +7,6 @@ public class UserLoginValidator implements ConstraintValidator<UserLogin, String
 
     @Override
     public boolean isValid(String userLogin, ConstraintValidatorContext context) {
-        return !userLogin.isBlank() && !userLogin.contains(" ");
+        return userLogin != null && !userLogin.isBlank() && !userLogin.contains(" ");
     }
 }
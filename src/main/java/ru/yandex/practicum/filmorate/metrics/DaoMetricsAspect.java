@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class DaoMetricsAspect {
+
+    static final String QUERY_TIMER = "filmorate.dao.query";
+    static final String QUERY_ROWS = "filmorate.dao.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.dao.impl.*DaoImpl.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String dao = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Object result = joinPoint.proceed();
+            outcome = "success";
+            recordRows(dao, method, result);
+            return result;
+        } finally {
+            sample.stop(Timer.builder(QUERY_TIMER)
+                    .tag("dao", dao)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void recordRows(String dao, String method, Object result) {
+        int rows;
+        if (result instanceof Collection) {
+            rows = ((Collection<?>) result).size();
+        } else if (result instanceof Optional) {
+            rows = ((Optional<?>) result).isPresent() ? 1 : 0;
+        } else {
+            return;
+        }
+        DistributionSummary.builder(QUERY_ROWS)
+                .tag("dao", dao)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+final class JdbcStatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private JdbcStatementCounter() {
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource((DataSource) bean, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueriesPerRequestFilter queriesPerRequestFilter(MeterRegistry meterRegistry) {
+        return new QueriesPerRequestFilter(meterRegistry);
+    }
+}
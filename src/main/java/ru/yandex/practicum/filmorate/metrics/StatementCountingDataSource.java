@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class StatementCountingDataSource extends DelegatingDataSource {
+
+    static final String STATEMENTS_COUNTER = "filmorate.jdbc.statements";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Counter statements;
+
+    StatementCountingDataSource(DataSource dataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(dataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private Counter statements() {
+        Counter counter = statements;
+        if (counter == null) {
+            counter = Counter.builder(STATEMENTS_COUNTER).register(meterRegistry.getObject());
+            statements = counter;
+        }
+        return counter;
+    }
+
+    private Connection countingConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("prepareStatement") || name.equals("createStatement")
+                            || name.equals("prepareCall")) {
+                        statements().increment();
+                        JdbcStatementCounter.increment();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
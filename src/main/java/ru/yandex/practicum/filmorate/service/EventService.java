@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.dao.EventDao;
 import ru.yandex.practicum.filmorate.dao.UserDao;
 import ru.yandex.practicum.filmorate.entity.Event;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 
 import java.util.List;
@@ -14,6 +15,8 @@ import java.util.List;
 @Slf4j
 @RequiredArgsConstructor
 public class EventService {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserDao userDao;
     private final EventDao eventDao;
 
@@ -24,4 +27,40 @@ public class EventService {
         }
         return eventDao.getUserFeed(userId);
     }
+
+    public List<Event> getUserFeed(Long userId, long afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IncorrectParameterException("limit");
+        }
+        if (userDao.getUserById(userId).isEmpty()) {
+            throw new UserNotFoundException("Невозможно получить ленту событий, пользователя с id="
+                    + userId + " не существует.");
+        }
+        return eventDao.getUserFeed(userId, afterId, limit);
+    }
+
+    public List<Event> getUserFeed(Long userId, long since, long until, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IncorrectParameterException("limit");
+        }
+        if (since > until) {
+            throw new IncorrectParameterException("until");
+        }
+        if (userDao.getUserById(userId).isEmpty()) {
+            throw new UserNotFoundException("Невозможно получить ленту событий, пользователя с id="
+                    + userId + " не существует.");
+        }
+        return eventDao.getUserFeed(userId, since, until, limit);
+    }
+
+    public List<Event> getFriendsFeed(Long userId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IncorrectParameterException("limit");
+        }
+        if (userDao.getUserById(userId).isEmpty()) {
+            throw new UserNotFoundException("Невозможно получить ленту событий друзей, пользователя с id="
+                    + userId + " не существует.");
+        }
+        return eventDao.getFriendsFeed(userId, limit);
+    }
 }
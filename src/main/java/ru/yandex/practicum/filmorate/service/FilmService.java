@@ -11,6 +11,7 @@ import ru.yandex.practicum.filmorate.entity.Event;
 import ru.yandex.practicum.filmorate.entity.EventType;
 import ru.yandex.practicum.filmorate.entity.Operation;
 import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 import ru.yandex.practicum.filmorate.exception.DirectorNotFoundException;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
@@ -18,6 +19,7 @@ import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +27,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FilmService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final FilmDao filmDao;
     private final UserDao userDao;
     private final EventDao eventDao;
@@ -39,6 +43,17 @@ public class FilmService {
         return filmDao.getFilms();
     }
 
+    public List<Film> getFilms(long afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IncorrectParameterException("limit");
+        }
+        return filmDao.getFilms(afterId, limit);
+    }
+
+    public void streamFilms(Consumer<Film> consumer) {
+        filmDao.streamFilms(consumer);
+    }
+
     public Film addFilm(Film film) {
         Long id = filmDao.addFilm(film);
         log.info("ПОЛУЧЕН ID = {}", id);
@@ -46,6 +61,10 @@ public class FilmService {
                 .orElseThrow(() -> new FilmNotFoundException("Фильм не добавился"));
     }
 
+    public List<Long> addFilms(List<Film> films) {
+        return filmDao.addFilms(films);
+    }
+
     public Film updateFilm(Film film) {
         if (filmDao.getFilmById(film.getId()).isEmpty()) {
             throw new FilmNotFoundException("Фильма с id = " + film.getId() + " не существует.");
@@ -55,9 +74,7 @@ public class FilmService {
     }
 
     public Film addLike(Long filmId, Long userId) {
-        if (filmDao.getFilmById(filmId).isEmpty()) {
-            throw new FilmNotFoundException("Фильма с id = " + filmId + " не существует.");
-        }
+        Film film = getFilm(filmId);
         if (userDao.getUserById(userId).isEmpty()) {
             throw new UserNotFoundException("Пользователя с id = " + userId + " не существует.");
         }
@@ -68,22 +85,37 @@ public class FilmService {
                 .timestamp(Instant.now().toEpochMilli())
                 .entityId(filmId)
                 .build());
-        if (filmDao.isFilmLikeExist(filmId, userId)) {
-            return filmDao.getFilmById(filmId).get();
+        if (filmDao.addLike(filmId, userId)) {
+            film.setRate(film.getRate() + 1);
         }
-        filmDao.addLike(filmId, userId);
         log.trace("Создано событие: Пользователь: с id = " + userId + " поставил лайк фильму с id = " + filmId);
-        return filmDao.getFilmById(filmId).get();
+        return film;
+    }
+
+    public List<FilmLikes> addLikes(List<FilmLikes> likes) {
+        List<FilmLikes> added = filmDao.addLikes(likes);
+        long timestamp = Instant.now().toEpochMilli();
+        eventDao.addEvents(added.stream()
+                .map(like -> Event.builder()
+                        .userId(like.getUserId())
+                        .eventType(EventType.LIKE)
+                        .operation(Operation.ADD)
+                        .timestamp(timestamp)
+                        .entityId(like.getFilmId())
+                        .build())
+                .collect(Collectors.toList()));
+        log.trace("Пакет лайков добавлен, новых лайков: " + added.size());
+        return added;
     }
 
     public Film deleteLike(Long filmId, Long userId) {
-        if (filmDao.getFilmById(filmId).isEmpty()) {
-            throw new FilmNotFoundException("Фильма с id = " + filmId + " не существует.");
-        }
+        Film film = getFilm(filmId);
         if (userDao.getUserById(userId).isEmpty()) {
             throw new UserNotFoundException("Пользователя с id = " + userId + " не существует.");
         }
-        filmDao.deleteLike(filmId, userId);
+        if (filmDao.deleteLike(filmId, userId)) {
+            film.setRate(film.getRate() - 1);
+        }
         eventDao.addEvent(Event.builder()
                 .userId(userId)
                 .eventType(EventType.LIKE)
@@ -92,7 +124,7 @@ public class FilmService {
                 .entityId(filmId)
                 .build());
         log.trace("Создано событие: Пользователь: с id = " + userId + " удалил лайк с фильма с id = " + filmId);
-        return filmDao.getFilmById(filmId).get();
+        return film;
     }
 
     public List<Film> getPopularFilms(Integer genreId, Integer year, int count) {
@@ -112,22 +144,17 @@ public class FilmService {
             throw new IncorrectParameterException("query или by не должны быть пустыми");
         }
         query = query.toLowerCase();
-        List<Film> rez;
         switch (by) {
             case "director":
-                rez = filmDao.searchFilmsWithDirector(query);
-                break;
+                return filmDao.searchFilms(query, false, true);
             case "title":
-                rez = filmDao.searchFilmsWithTitle(query);
-                break;
+                return filmDao.searchFilms(query, true, false);
             case "director,title":
             case "title,director":
-                rez = filmDao.searchFilmsWithDirectorAndTitle(query);
-                break;
+                return filmDao.searchFilms(query, true, true);
             default:
                 throw new IncorrectParameterException("by получил недопустимые параметры");
         }
-        return rez;
     }
 
     public void deleteFilmById(Long filmId) {
@@ -155,13 +182,9 @@ public class FilmService {
         if (userDao.getUserById(userId).isEmpty()) {
             throw new UserNotFoundException(String.format("Пользователя с id = '%s' не существует.", userId));
         }
-        if (userDao.getUserById(userId).isEmpty()) {
+        if (userDao.getUserById(friendId).isEmpty()) {
             throw new UserNotFoundException(String.format("Пользователя с id = '%s' не существует.", friendId));
         }
-        List<Film> filmsLikedByUser = filmDao.getFilmsLikedByUser(userId);
-        List<Film> filmsLikedByFriend = filmDao.getFilmsLikedByUser(friendId);
-        return filmsLikedByUser.stream()
-                .filter(filmsLikedByFriend::contains)
-                .collect(Collectors.toList());
+        return filmDao.getCommonFilms(userId, friendId);
     }
 }
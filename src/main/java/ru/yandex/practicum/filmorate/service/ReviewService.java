@@ -97,30 +97,30 @@ public class ReviewService {
     }
 
     public void addLike(Long reviewId, Long userId) {
-        reviewDao.getReviewById(reviewId)
-                .orElseThrow(() -> new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId));
         userDao.getUserById(userId).orElseThrow(() -> new UserNotFoundException("user not found"));
-        reviewDao.addLike(reviewId, userId);
+        if (!reviewDao.addLike(reviewId, userId)) {
+            throw new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId);
+        }
     }
 
     public void addDislike(Long reviewId, Long userId) {
-        reviewDao.getReviewById(reviewId)
-                .orElseThrow(() -> new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId));
         userDao.getUserById(userId).orElseThrow(() -> new UserNotFoundException("user not found"));
-        reviewDao.addDislike(reviewId, userId);
+        if (!reviewDao.addDislike(reviewId, userId)) {
+            throw new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId);
+        }
     }
 
     public void deleteLike(Long reviewId, Long userId) {
-        reviewDao.getReviewById(reviewId)
-                .orElseThrow(() -> new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId));
         userDao.getUserById(userId).orElseThrow(() -> new UserNotFoundException("user not found"));
-        reviewDao.deleteLike(reviewId, userId);
+        if (!reviewDao.deleteLike(reviewId, userId)) {
+            throw new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId);
+        }
     }
 
     public void deleteDislike(Long reviewId, Long userId) {
-        reviewDao.getReviewById(reviewId)
-                .orElseThrow(() -> new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId));
         userDao.getUserById(userId).orElseThrow(() -> new UserNotFoundException("user not found"));
-        reviewDao.deleteDislike(reviewId, userId);
+        if (!reviewDao.deleteDislike(reviewId, userId)) {
+            throw new ReviewNotFoundException("Отзыв с данным id не был найден. Id : " + reviewId);
+        }
     }
 }
@@ -10,19 +10,22 @@ import ru.yandex.practicum.filmorate.entity.Event;
 import ru.yandex.practicum.filmorate.entity.EventType;
 import ru.yandex.practicum.filmorate.entity.Operation;
 import ru.yandex.practicum.filmorate.entity.film.Film;
-import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 import ru.yandex.practicum.filmorate.entity.user.User;
+import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 
 import java.time.Instant;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final UserDao userDao;
     private final EventDao eventDao;
     private final FilmDao filmDao;
@@ -31,6 +34,21 @@ public class UserService {
         return userDao.getUsers();
     }
 
+    public List<User> getUsers(long afterId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IncorrectParameterException("limit");
+        }
+        return userDao.getUsers(afterId, limit);
+    }
+
+    public void streamUsers(Consumer<User> consumer) {
+        userDao.streamUsers(consumer);
+    }
+
+    public void streamLikedFilms(Long userId, Consumer<Film> consumer) {
+        filmDao.streamFilmsLikedByUser(userId, consumer);
+    }
+
     public User addUser(User user) {
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
@@ -39,6 +57,15 @@ public class UserService {
         return userDao.getUserById(id).orElseThrow(() -> new UserNotFoundException("Пользователь не добавился."));
     }
 
+    public List<Long> addUsers(List<User> users) {
+        for (User user : users) {
+            if (user.getName() == null || user.getName().isBlank()) {
+                user.setName(user.getLogin());
+            }
+        }
+        return userDao.addUsers(users);
+    }
+
     public User updateUser(User user) {
         if (userDao.getUserById(user.getId()).isEmpty()) {
             throw new UserNotFoundException("Пользователя с id = " + user.getId() + " не существует.");
@@ -108,65 +135,24 @@ public class UserService {
         if (userDao.getUserById(otherId).isEmpty()) {
             throw new UserNotFoundException("Пользователя с id = " + otherId + " не существует.");
         }
-        ArrayList<User> userFriends = new ArrayList<>(this.getUserFriends(id));
-        ArrayList<User> otherUserFriends = new ArrayList<>(this.getUserFriends(otherId));
-        return userFriends.stream().filter(otherUserFriends::contains).collect(Collectors.toList());
+        return userDao.getCommonFriends(id, otherId);
     }
 
-    public List<Film> getRecommendedFilms(Long userId) {
-        Optional<User> optionalUser = userDao.getUserById(userId);
-        if (optionalUser.isEmpty()) {
-            throw new UserNotFoundException("Пользователя с id = " + userId + " не существует.");
+    public List<User> getFriendSuggestions(Long id, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IncorrectParameterException("limit");
         }
-        List<Film> films = filmDao.getFilms();
-        List<User> users = userDao.getUsers();
-        List<FilmLikes> filmLikes = filmDao.findAllFilmLikes();
-        Map<User, HashMap<Film, Integer>> data = new HashMap<>();
-        for (User user : users) {
-            HashMap<Film, Integer> userLikes = new HashMap<>();
-            films.forEach(film -> userLikes.put(film, getRating(filmLikes, user, film)));
-            data.put(user, userLikes);
+        if (userDao.getUserById(id).isEmpty()) {
+            throw new UserNotFoundException("Пользователя с id = " + id + " не существует.");
         }
-        return getRecommendedFilms(data, optionalUser.get());
-    }
-
-    private Integer getRating(List<FilmLikes> filmLikes, User user, Film film) {
-        if (filmLikes.stream()
-                .anyMatch(filmLikes1 -> (filmLikes1.getFilmId() == film.getId()
-                        && filmLikes1.getUserId() == user.getId())))
-            return 1;
-        return 0;
+        return userDao.getFriendSuggestions(id, limit);
     }
 
-    private List<Film> getRecommendedFilms(Map<User, HashMap<Film, Integer>> data, User userInput) {
-        Map<Film, Integer> userInputData = data.get(userInput);
-        User maxMatchUser = User.builder().build();
-        int maxMatches = 0;
-        for (User user : data.keySet()) {
-            if (user.equals(userInput))
-                continue;
-            int countMatches = 0;
-            Map<Film, Integer> userData = data.get(user);
-            for (Film film : userData.keySet()) {
-                if (userData.get(film).equals(userInputData.get(film))
-                        && userInputData.get(film) == 1
-                        && userData.get(film) == 1) {
-                    ++countMatches;
-                }
-            }
-            if (maxMatches < countMatches) {
-                maxMatches = countMatches;
-                maxMatchUser = user;
-            }
-        }
-        if (maxMatches == 0) {
-            return Collections.emptyList();
+    public List<Film> getRecommendedFilms(Long userId) {
+        if (userDao.getUserById(userId).isEmpty()) {
+            throw new UserNotFoundException("Пользователя с id = " + userId + " не существует.");
         }
-        Map<Film, Integer> maxMatchData = data.get(maxMatchUser);
-        return maxMatchData.keySet().stream()
-                .filter(film -> (!maxMatchData.get(film).equals(userInputData.get(film))
-                        && userInputData.get(film) == 0))
-                .collect(Collectors.toList());
+        return filmDao.getFilmsByIds(filmDao.getRecommendedFilmIds(userId));
     }
 
     public void deleteUserById(Long userId) {
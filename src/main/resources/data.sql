@@ -1,12 +0,0 @@
-INSERT INTO "mpa" (name) VALUES ('G');
-INSERT INTO "mpa" (name) VALUES ('PG');
-INSERT INTO "mpa" (name) VALUES ('PG-13');
-INSERT INTO "mpa" (name) VALUES ('R');
-INSERT INTO "mpa" (name) VALUES ('NC-17');
-
-INSERT INTO "genres" (name) values ('Комедия');
-INSERT INTO "genres" (name) values ('Драма');
-INSERT INTO "genres" (name) values ('Мультфильм');
-INSERT INTO "genres" (name) values ('Триллер');
-INSERT INTO "genres" (name) values ('Документальный');
-INSERT INTO "genres" (name) values ('Боевик');
@@ -1,16 +1,3 @@
-DROP TABLE IF EXISTS "events";
-DROP TABLE IF EXISTS "review_likes";
-DROP TABLE IF EXISTS "reviews";
-DROP TABLE IF EXISTS "films_directors";
-DROP TABLE IF EXISTS "films_genres";
-DROP TABLE IF EXISTS "film_likes";
-DROP TABLE IF EXISTS "user_friends";
-DROP TABLE IF EXISTS "films";
-DROP TABLE IF EXISTS "users";
-DROP TABLE IF EXISTS "mpa";
-DROP TABLE IF EXISTS "genres";
-DROP TABLE IF EXISTS "directors";
-
 CREATE TABLE IF NOT EXISTS PUBLIC."users" (
 	USER_ID BIGINT NOT NULL AUTO_INCREMENT,
 	EMAIL CHARACTER VARYING(50) NOT NULL,
@@ -114,4 +101,20 @@ CREATE TABLE IF NOT EXISTS PUBLIC."events" (
     ENTITY_ID BIGINT NOT NULL,
 	CONSTRAINT EVENTS_PK PRIMARY KEY (EVENT_ID),
     CONSTRAINT EVENTS_FK FOREIGN KEY (USER_ID) REFERENCES PUBLIC."users"(USER_ID) ON DELETE CASCADE ON UPDATE RESTRICT
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS REVIEWS_FILM_USEFUL_IDX ON PUBLIC."reviews" (FILM_ID, USEFUL);
+CREATE INDEX IF NOT EXISTS EVENTS_USER_TIMESTAMP_IDX ON PUBLIC."events" (USER_ID, TIMESTAMP);
+
+MERGE INTO "mpa" (NAME) KEY (NAME) VALUES ('G');
+MERGE INTO "mpa" (NAME) KEY (NAME) VALUES ('PG');
+MERGE INTO "mpa" (NAME) KEY (NAME) VALUES ('PG-13');
+MERGE INTO "mpa" (NAME) KEY (NAME) VALUES ('R');
+MERGE INTO "mpa" (NAME) KEY (NAME) VALUES ('NC-17');
+
+MERGE INTO "genres" (NAME) KEY (NAME) VALUES ('Комедия');
+MERGE INTO "genres" (NAME) KEY (NAME) VALUES ('Драма');
+MERGE INTO "genres" (NAME) KEY (NAME) VALUES ('Мультфильм');
+MERGE INTO "genres" (NAME) KEY (NAME) VALUES ('Триллер');
+MERGE INTO "genres" (NAME) KEY (NAME) VALUES ('Документальный');
+MERGE INTO "genres" (NAME) KEY (NAME) VALUES ('Боевик');
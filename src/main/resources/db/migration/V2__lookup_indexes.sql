@@ -0,0 +1,4 @@
+CREATE INDEX IF NOT EXISTS FILM_LIKES_USER_IDX ON PUBLIC."film_likes" (USER_ID, FILM_ID);
+CREATE INDEX IF NOT EXISTS USER_FRIENDS_FRIEND_IDX ON PUBLIC."user_friends" (FRIEND_USER_ID, USER_ID);
+CREATE INDEX IF NOT EXISTS FILMS_RATE_IDX ON PUBLIC."films" (RATE);
+CREATE INDEX IF NOT EXISTS FILMS_RELEASE_DATE_IDX ON PUBLIC."films" (RELEASE_DATE);
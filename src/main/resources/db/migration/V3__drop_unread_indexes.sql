@@ -0,0 +1,4 @@
+DROP INDEX IF EXISTS PUBLIC.FILMS_RATE_IDX;
+DROP INDEX IF EXISTS PUBLIC.FILMS_RELEASE_DATE_IDX;
+DROP INDEX IF EXISTS PUBLIC.REVIEWS_FILM_USEFUL_IDX;
+DROP INDEX IF EXISTS PUBLIC.USER_FRIENDS_FRIEND_IDX;
@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.datasource.SchemaMigrator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(16)
+@Fork(1)
+public class ControllerThroughputBenchmark {
+
+    @Param({"2", "0"})
+    private int poolSize;
+
+    @Param({"256"})
+    private int statementCacheSize;
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"1000"})
+    private int films;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup
+    public void setUp() {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        String url = "jdbc:h2:mem:controllers-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new SchemaMigrator(dataSource).migrate();
+        seed(new JdbcTemplate(dataSource));
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--filmorate.datasource.pool-size=" + poolSize,
+                        "--filmorate.datasource.statement-cache-size=" + statementCacheSize,
+                        "--logging.level.root=warn",
+                        "--logging.level.ru.yandex.practicum=warn");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i + "@mail.com", "login" + i, "name" + i,
+                    Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)", rows);
+        rows = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            rows.add(new Object[]{"film" + i, "description" + i, Date.valueOf(LocalDate.of(2000, 1, 1)), 90,
+                    1 + i % 5});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"films\" (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID)" +
+                " VALUES (?, ?, ?, ?, 0, ?)", rows);
+        rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            for (int j = 1; j <= 10; j++) {
+                rows.add(new Object[]{i, 1 + (i + j) % users});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"user_friends\" (USER_ID, FRIEND_USER_ID) VALUES (?, ?)", rows);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " вернул " + response.statusCode());
+        }
+        return response.body().length();
+    }
+
+    @Benchmark
+    public int getFilm() throws IOException, InterruptedException {
+        return get("/films/" + (1 + ThreadLocalRandom.current().nextInt(films)));
+    }
+
+    @Benchmark
+    public int getPopularFilms() throws IOException, InterruptedException {
+        return get("/films/popular?count=10");
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        return get("/users/" + (1 + ThreadLocalRandom.current().nextInt(users)));
+    }
+
+    @Benchmark
+    public int getFriends() throws IOException, InterruptedException {
+        return get("/users/" + (1 + ThreadLocalRandom.current().nextInt(users)) + "/friends");
+    }
+}
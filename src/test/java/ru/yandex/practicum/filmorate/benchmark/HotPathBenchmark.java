@@ -0,0 +1,196 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.datasource.SchemaMigrator;
+import ru.yandex.practicum.filmorate.dao.EventDao;
+import ru.yandex.practicum.filmorate.dao.FilmDao;
+import ru.yandex.practicum.filmorate.entity.Event;
+import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.user.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+
+    private static final int GENRES = 6;
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"1000"})
+    private int films;
+
+    @Param({"20"})
+    private int likesPerUser;
+
+    @Param({"10"})
+    private int friendsPerUser;
+
+    @Param({"100"})
+    private int directors;
+
+    private ConfigurableApplicationContext context;
+    private FilmDao filmDao;
+    private EventDao eventDao;
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        String url = "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new SchemaMigrator(dataSource).migrate();
+        seed(new JdbcTemplate(dataSource), new Random(42));
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--logging.level.root=warn",
+                        "--logging.level.ru.yandex.practicum=warn");
+        filmDao = context.getBean(FilmDao.class);
+        eventDao = context.getBean(EventDao.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, Random random) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i + "@mail.com", "login" + i, "name" + i,
+                    Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)", rows);
+
+        rows = new ArrayList<>();
+        for (int i = 1; i <= directors; i++) {
+            rows.add(new Object[]{"director" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"directors\" (NAME) VALUES (?)", rows);
+
+        rows = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            rows.add(new Object[]{"film" + i, "description" + i,
+                    Date.valueOf(LocalDate.of(1960 + random.nextInt(60), 1, 1)), 90, 0, 1 + random.nextInt(5)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"films\" (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID)" +
+                " VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> filmDirectors = new ArrayList<>();
+        for (long filmId = 1; filmId <= films; filmId++) {
+            genres.add(new Object[]{filmId, 1 + random.nextInt(GENRES)});
+            if (directors > 0) {
+                filmDirectors.add(new Object[]{filmId, 1 + random.nextInt(directors)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"films_genres\" (FILM_ID, GENRE_ID) VALUES (?, ?)", genres);
+        jdbcTemplate.batchUpdate("INSERT INTO \"films_directors\" (FILM_ID, DIRECTOR_ID) VALUES (?, ?)", filmDirectors);
+
+        List<Object[]> likes = new ArrayList<>();
+        List<Object[]> events = new ArrayList<>();
+        Map<Long, Integer> rates = new HashMap<>();
+        long timestamp = 0;
+        for (long userId = 1; userId <= users; userId++) {
+            Set<Long> liked = new HashSet<>();
+            for (int i = 0; i < likesPerUser; i++) {
+                liked.add(1L + random.nextInt(films));
+            }
+            for (Long filmId : liked) {
+                likes.add(new Object[]{filmId, userId});
+                events.add(new Object[]{userId, "LIKE", "ADD", ++timestamp, filmId});
+                rates.merge(filmId, 1, Integer::sum);
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"film_likes\" (FILM_ID, USER_ID) VALUES (?, ?)", likes);
+        List<Object[]> rateRows = new ArrayList<>();
+        rates.forEach((filmId, rate) -> rateRows.add(new Object[]{rate, filmId}));
+        jdbcTemplate.batchUpdate("UPDATE \"films\" SET RATE = ? WHERE FILM_ID = ?", rateRows);
+
+        List<Object[]> friends = new ArrayList<>();
+        for (long userId = 1; userId <= users; userId++) {
+            Set<Long> friendIds = new HashSet<>();
+            for (int i = 0; i < friendsPerUser; i++) {
+                long friendId = 1L + random.nextInt(users);
+                if (friendId != userId && friendIds.add(friendId)) {
+                    friends.add(new Object[]{userId, friendId});
+                    events.add(new Object[]{userId, "FRIEND", "ADD", ++timestamp, friendId});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"user_friends\" (USER_ID, FRIEND_USER_ID) VALUES (?, ?)", friends);
+        jdbcTemplate.batchUpdate("INSERT INTO \"events\" (USER_ID, EVENT_TYPE, OPERATION, TIMESTAMP, ENTITY_ID)" +
+                " VALUES (?, ?, ?, ?, ?)", events);
+    }
+
+    @Benchmark
+    public List<Film> getFilms() {
+        return filmDao.getFilms();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmDao.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsByGenreAndYear() {
+        return filmDao.getPopularFilmsByGenreAndYear(1, 1990, 10);
+    }
+
+    @Benchmark
+    public List<Film> searchFilmsByTitle() {
+        return filmDao.searchFilms("lm12", true, false);
+    }
+
+    @Benchmark
+    public List<Film> searchFilmsByTitleAndDirector() {
+        return filmDao.searchFilms("tor1", true, true);
+    }
+
+    @Benchmark
+    public List<Film> getRecommendedFilms() {
+        return userService.getRecommendedFilms(1L);
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return userService.getCommonFriends(1L, 2L);
+    }
+
+    @Benchmark
+    public List<Event> getUserFeed() {
+        return eventDao.getUserFeed(1L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.dao.impl.FilmLikesIndex;
+import ru.yandex.practicum.filmorate.datasource.SchemaMigrator;
+import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
+import ru.yandex.practicum.filmorate.entity.user.User;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class RecommendationBenchmark {
+
+    @Param({"100", "300"})
+    private int users;
+
+    @Param({"200"})
+    private int films;
+
+    @Param({"20"})
+    private int likesPerUser;
+
+    private EmbeddedDatabase database;
+    private FilmLikesIndex filmLikesIndex;
+    private List<Film> filmList;
+    private List<User> userList;
+    private List<FilmLikes> filmLikes;
+
+    @Setup
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new SchemaMigrator(database).migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        Random random = new Random(42);
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            userRows.add(new Object[]{"user" + i + "@mail.com", "login" + i, "name" + i,
+                    Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)", userRows);
+        List<Object[]> filmRows = new ArrayList<>();
+        for (int i = 1; i <= films; i++) {
+            filmRows.add(new Object[]{"film" + i, "description" + i, Date.valueOf(LocalDate.of(2000, 1, 1)), 90, 0, 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"films\" (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID)" +
+                " VALUES (?, ?, ?, ?, ?, ?)", filmRows);
+        Set<FilmLikes> likes = new HashSet<>();
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < likesPerUser; i++) {
+                likes.add(new FilmLikes(1 + random.nextInt(films), userId));
+            }
+        }
+        filmLikes = new ArrayList<>(likes);
+        jdbcTemplate.batchUpdate("INSERT INTO \"film_likes\" (FILM_ID, USER_ID) VALUES (?, ?)",
+                filmLikes.stream()
+                        .map(like -> new Object[]{like.getFilmId(), like.getUserId()})
+                        .collect(Collectors.toList()));
+        filmLikesIndex = new FilmLikesIndex(jdbcTemplate);
+        filmList = new ArrayList<>();
+        for (long id = 1; id <= films; id++) {
+            filmList.add(Film.builder().id(id).build());
+        }
+        userList = new ArrayList<>();
+        for (long id = 1; id <= users; id++) {
+            userList.add(User.builder().id(id).build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public List<Long> sparseIndex() {
+        return filmLikesIndex.getRecommendedFilmIds(1L);
+    }
+
+    @Benchmark
+    public List<Film> fullMatrix() {
+        Map<User, HashMap<Film, Integer>> data = new HashMap<>();
+        for (User user : userList) {
+            HashMap<Film, Integer> userLikes = new HashMap<>();
+            filmList.forEach(film -> userLikes.put(film, getRating(filmLikes, user, film)));
+            data.put(user, userLikes);
+        }
+        return getRecommendedFilms(data, userList.get(0));
+    }
+
+    private static Integer getRating(List<FilmLikes> filmLikes, User user, Film film) {
+        if (filmLikes.stream()
+                .anyMatch(filmLikes1 -> (filmLikes1.getFilmId() == film.getId()
+                        && filmLikes1.getUserId() == user.getId())))
+            return 1;
+        return 0;
+    }
+
+    private static List<Film> getRecommendedFilms(Map<User, HashMap<Film, Integer>> data, User userInput) {
+        Map<Film, Integer> userInputData = data.get(userInput);
+        User maxMatchUser = User.builder().build();
+        int maxMatches = 0;
+        for (User user : data.keySet()) {
+            if (user.equals(userInput))
+                continue;
+            int countMatches = 0;
+            Map<Film, Integer> userData = data.get(user);
+            for (Film film : userData.keySet()) {
+                if (userData.get(film).equals(userInputData.get(film))
+                        && userInputData.get(film) == 1
+                        && userData.get(film) == 1) {
+                    ++countMatches;
+                }
+            }
+            if (maxMatches < countMatches) {
+                maxMatches = countMatches;
+                maxMatchUser = user;
+            }
+        }
+        if (maxMatches == 0) {
+            return Collections.emptyList();
+        }
+        Map<Film, Integer> maxMatchData = data.get(maxMatchUser);
+        return maxMatchData.keySet().stream()
+                .filter(film -> (!maxMatchData.get(film).equals(userInputData.get(film))
+                        && userInputData.get(film) == 0))
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecommendationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
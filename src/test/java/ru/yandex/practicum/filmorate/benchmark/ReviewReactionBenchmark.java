@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.datasource.SchemaMigrator;
+import ru.yandex.practicum.filmorate.service.ReviewService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(8)
+@Fork(1)
+public class ReviewReactionBenchmark {
+
+    @Param({"200"})
+    private int users;
+
+    @Param({"10"})
+    private int reviews;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ReviewService reviewService;
+
+    @Setup
+    public void setUp() {
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        String url = "jdbc:h2:mem:reactions-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+        new SchemaMigrator(dataSource).migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seed();
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--logging.level.root=warn",
+                        "--logging.level.ru.yandex.practicum=warn");
+        reviewService = context.getBean(ReviewService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Integer drifted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"reviews\" r WHERE r.USEFUL <> " +
+                "(SELECT COALESCE(SUM(CASE WHEN rl.IS_LIKED THEN 1 ELSE -1 END), 0) FROM \"review_likes\" rl " +
+                "WHERE rl.REVIEW_ID = r.REVIEW_ID)", Integer.class);
+        context.close();
+        if (drifted == null || drifted != 0) {
+            throw new IllegalStateException("Полезность разошлась с реакциями у отзывов: " + drifted);
+        }
+    }
+
+    private void seed() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i + "@mail.com", "login" + i, "name" + i,
+                    Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) VALUES (?, ?, ?, ?)", rows);
+        jdbcTemplate.update("INSERT INTO \"films\" (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID)" +
+                " VALUES ('film', 'description', ?, 90, 0, 1)", Date.valueOf(LocalDate.of(2000, 1, 1)));
+        rows = new ArrayList<>();
+        for (int i = 1; i <= reviews; i++) {
+            rows.add(new Object[]{"review" + i, true, 1 + (i % users), 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"reviews\" (CONTENT, IS_POSITIVE, USER_ID, FILM_ID)" +
+                " VALUES (?, ?, ?, ?)", rows);
+    }
+
+    @Benchmark
+    public void react() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long reviewId = 1L + random.nextInt(reviews);
+        long userId = 1L + random.nextInt(users);
+        switch (random.nextInt(4)) {
+            case 0:
+                reviewService.addLike(reviewId, userId);
+                break;
+            case 1:
+                reviewService.addDislike(reviewId, userId);
+                break;
+            case 2:
+                reviewService.deleteLike(reviewId, userId);
+                break;
+            default:
+                reviewService.deleteDislike(reviewId, userId);
+        }
+    }
+}
@@ -9,7 +9,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.entity.BulkImportResult;
 import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.IncorrectParameterException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
@@ -18,11 +21,16 @@ import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = FilmController.class)
@@ -40,6 +48,75 @@ class FilmControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @SneakyThrows
+    @Test
+    public void addFilms_thenReturnImportResultWithLineErrors() {
+        String body = "{\"name\":\"film1\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n"
+                + "{\"name\":\"film2\",\"description\":\"d\",\"releaseDate\":\"1800-01-01\",\"duration\":90}\n"
+                + "{\"name\":\n"
+                + "\n"
+                + "{\"name\":\"film3\",\"description\":\"d\",\"releaseDate\":\"2001-01-01\",\"duration\":90}\n";
+        when(filmService.addFilms(Mockito.anyList())).thenReturn(List.of(1L, 2L));
+        String response = mockMvc.perform(post("/films/bulk")
+                        .contentType(NdjsonStreams.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        BulkImportResult result = objectMapper.readValue(response, BulkImportResult.class);
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(2, 3), result.getErrors().stream()
+                .map(BulkImportResult.RecordError::getLine)
+                .collect(Collectors.toList()));
+        verify(filmService, times(1)).addFilms(Mockito.argThat(films -> films.size() == 2));
+    }
+
+    @SneakyThrows
+    @Test
+    public void addFilms_whenChunkFails_thenRetryRecordsOneByOne() {
+        String body = "{\"name\":\"film1\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n"
+                + "{\"name\":\"film2\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n";
+        when(filmService.addFilms(Mockito.anyList())).thenAnswer(invocation -> {
+            List<Film> films = invocation.getArgument(0);
+            if (films.stream().anyMatch(film -> film.getName().equals("film2"))) {
+                throw new IllegalStateException("duplicate");
+            }
+            return List.of(1L);
+        });
+        String response = mockMvc.perform(post("/films/bulk")
+                        .contentType(NdjsonStreams.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        BulkImportResult result = objectMapper.readValue(response, BulkImportResult.class);
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("duplicate", result.getErrors().get(0).getMessage());
+    }
+
+    @SneakyThrows
+    @Test
+    public void addLikes_thenSkipLinesWithoutIds() {
+        String body = "{\"filmId\":1,\"userId\":2}\n{\"filmId\":1}\n{\"filmId\":2,\"userId\":2}\n";
+        when(filmService.addLikes(Mockito.anyList())).thenReturn(List.of(new FilmLikes(1L, 2L)));
+        String response = mockMvc.perform(post("/films/likes/bulk")
+                        .contentType(NdjsonStreams.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        BulkImportResult result = objectMapper.readValue(response, BulkImportResult.class);
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        verify(filmService, times(1)).addLikes(List.of(new FilmLikes(1L, 2L), new FilmLikes(2L, 2L)));
+    }
+
     @SneakyThrows
     @Test
     public void getAllFilms_thenReturnOkWithAllFilms() {
@@ -62,6 +139,35 @@ class FilmControllerTest {
         assertEquals(response, objectMapper.writeValueAsString(films));
     }
 
+    @SneakyThrows
+    @Test
+    public void getFilmsPage_thenReturnOkWithNextCursor() {
+        List<Film> films = List.of(
+                Film.builder().id(3L).name("name3").build(),
+                Film.builder().id(4L).name("name4").build());
+        when(filmService.getFilms(2L, 2)).thenReturn(films);
+        String response = mockMvc.perform(get("/films")
+                        .param("after", PageCursor.encode(2L))
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.encode(4L)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(response, objectMapper.writeValueAsString(films));
+
+        when(filmService.getFilms(4L, 2)).thenReturn(List.of(Film.builder().id(5L).build()));
+        mockMvc.perform(get("/films")
+                        .param("after", PageCursor.encode(4L))
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/films")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @SneakyThrows
     @Test
     public void getFilm_whenInvokedWithValidId_thenReturnOkWithFilm() {
@@ -82,6 +188,30 @@ class FilmControllerTest {
         assertEquals(response, objectMapper.writeValueAsString(film));
     }
 
+    @SneakyThrows
+    @Test
+    public void streamFilms_thenReturnNdjson() {
+        List<Film> films = List.of(
+                Film.builder().id(1L).name("name1").build(),
+                Film.builder().id(2L).name("name2").build());
+        doAnswer(invocation -> {
+            Consumer<Film> consumer = invocation.getArgument(0);
+            films.forEach(consumer);
+            return null;
+        }).when(filmService).streamFilms(any());
+        MvcResult result = mockMvc.perform(get("/films/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(objectMapper.writeValueAsString(films.get(0)) + "\n"
+                + objectMapper.writeValueAsString(films.get(1)) + "\n", response);
+    }
+
     @SneakyThrows
     @Test
     public void getFilm_whenInvokedWithInvalidId_thenReturnNotFound() {
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NdjsonStreamsTest {
+
+    @Test
+    public void bodyEndsWithNewlineAndLeavesStreamOpen() throws IOException {
+        ClosableOutputStream outputStream = new ClosableOutputStream();
+        NdjsonStreams.<Map<String, Integer>>body(new ObjectMapper(),
+                        consumer -> List.of(Map.of("id", 1), Map.of("id", 2)).forEach(consumer))
+                .getBody()
+                .writeTo(outputStream);
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    private static class ClosableOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public synchronized void write(int b) {
+            if (closed) {
+                throw new IllegalStateException("Поток закрыт");
+            }
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (closed) {
+                throw new IllegalStateException("Поток закрыт");
+            }
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
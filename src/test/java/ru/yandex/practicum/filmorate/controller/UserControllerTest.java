@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.entity.BulkImportResult;
 import ru.yandex.practicum.filmorate.entity.Event;
 import ru.yandex.practicum.filmorate.entity.EventType;
 import ru.yandex.practicum.filmorate.entity.Operation;
@@ -119,6 +120,25 @@ class UserControllerTest {
         Assertions.assertEquals(response, objectMapper.writeValueAsString(commonFriends));
     }
 
+    @SneakyThrows
+    @Test
+    public void getFriendSuggestions_thenReturnOkWithSuggestions() {
+        List<User> suggestions = List.of(User.builder()
+                .id(3L)
+                .email("name3@mail.com")
+                .login("login3")
+                .name("name3")
+                .build());
+        when(userService.getFriendSuggestions(1L, 5)).thenReturn(suggestions);
+        String response = mockMvc.perform(get("/users/1/friends/suggestions").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        verify(userService, atLeast(1)).getFriendSuggestions(1L, 5);
+        Assertions.assertEquals(response, objectMapper.writeValueAsString(suggestions));
+    }
+
     @SneakyThrows
     @Test
     public void getUserFriends_thenReturnOkWithFriendsList() {
@@ -284,6 +304,68 @@ class UserControllerTest {
         Assertions.assertEquals(response, objectMapper.writeValueAsString(events));
     }
 
+    @SneakyThrows
+    @Test
+    public void getUserFeedWindow_ReturnOkWithFeed() {
+        List<Event> events = List.of(new Event(5L,
+                1L,
+                EventType.LIKE,
+                Operation.ADD,
+                1682812242667L,
+                2L));
+        when(eventService.getUserFeed(1L, 1682812240000L, Long.MAX_VALUE, 20)).thenReturn(events);
+        String response = mockMvc.perform(get("/users/1/feed")
+                        .param("since", "1682812240000")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        verify(eventService, atLeast(1)).getUserFeed(1L, 1682812240000L, Long.MAX_VALUE, 20);
+        Assertions.assertEquals(response, objectMapper.writeValueAsString(events));
+    }
+
+    @SneakyThrows
+    @Test
+    public void addUsers_ReturnImportResultWithLineErrors() {
+        String body = "{\"email\":\"a@mail.ru\",\"login\":\"a\",\"birthday\":\"2000-01-01\"}\n"
+                + "{\"email\":\"b@mail.ru\",\"login\":\"bad login\",\"birthday\":\"2000-01-01\"}\n"
+                + "{\"email\":\"c@mail.ru\",\"birthday\":\"2000-01-01\"}\n";
+        when(userService.addUsers(Mockito.anyList())).thenReturn(List.of(1L));
+        String response = mockMvc.perform(post("/users/bulk")
+                        .contentType(NdjsonStreams.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        BulkImportResult result = objectMapper.readValue(response, BulkImportResult.class);
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(2, result.getErrors().size());
+        Assertions.assertEquals(2, result.getErrors().get(0).getLine());
+        Assertions.assertTrue(result.getErrors().get(0).getMessage().startsWith("login: "));
+        Assertions.assertEquals(3, result.getErrors().get(1).getLine());
+    }
+
+    @SneakyThrows
+    @Test
+    public void getFriendsFeed_ReturnOkWithFeed() {
+        List<Event> events = List.of(new Event(7L,
+                2L,
+                EventType.REVIEW,
+                Operation.UPDATE,
+                1682812242667L,
+                3L));
+        when(eventService.getFriendsFeed(1L, 20)).thenReturn(events);
+        String response = mockMvc.perform(get("/users/1/friends/feed"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        verify(eventService, atLeast(1)).getFriendsFeed(1L, 20);
+        Assertions.assertEquals(response, objectMapper.writeValueAsString(events));
+    }
+
     @SneakyThrows
     @Test
     public void getRecommendedFilms_whenInvokedWithValidId_thenReturnOkWithFilmList() {
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.dao.impl.FriendTimeline;
+import ru.yandex.practicum.filmorate.dao.impl.FriendshipIndex;
 import ru.yandex.practicum.filmorate.entity.Event;
 import ru.yandex.practicum.filmorate.entity.EventType;
 import ru.yandex.practicum.filmorate.entity.Operation;
@@ -15,9 +17,11 @@ import ru.yandex.practicum.filmorate.entity.user.User;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -28,6 +32,8 @@ public class EventDaoTest {
 
     private final UserDao userDao;
 
+    private final FriendshipIndex friendshipIndex;
+
     @BeforeEach
     public void beforeEach() {
         userDao.addUser(User.builder().name("name1").login("login1")
@@ -67,4 +73,164 @@ public class EventDaoTest {
         assertEquals(2, events.size());
         assertEquals(1, events.get(0).getEventId());
     }
+
+    @Test
+    @DirtiesContext
+    public void queuedEventsAreWrittenInOrderAndSkipInvalidOnes() {
+        for (long i = 1; i <= 5; i++) {
+            eventDao.addEvent(Event.builder()
+                    .userId(i == 3 ? 99L : 2L)
+                    .eventType(EventType.LIKE)
+                    .operation(Operation.ADD)
+                    .timestamp(Instant.now().toEpochMilli())
+                    .entityId(i)
+                    .build());
+        }
+        List<Event> events = eventDao.getUserFeed(2L);
+        assertEquals(4, events.size());
+        assertEquals(List.of(1L, 2L, 4L, 5L), events.stream()
+                .map(Event::getEntityId)
+                .collect(Collectors.toList()));
+        assertEquals(1, eventDao.getUserFeed(1L).size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getUserFeedWindow() {
+        for (long timestamp = 1; timestamp <= 60; timestamp++) {
+            eventDao.addEvent(Event.builder()
+                    .userId(2L)
+                    .eventType(EventType.LIKE)
+                    .operation(Operation.ADD)
+                    .timestamp(timestamp)
+                    .entityId(timestamp)
+                    .build());
+        }
+        assertEquals(List.of(51L, 52L, 53L, 54L, 55L, 56L, 57L, 58L, 59L, 60L),
+                timestamps(eventDao.getUserFeed(2L, Long.MIN_VALUE, Long.MAX_VALUE, 10)));
+        assertEquals(List.of(15L, 16L, 17L, 18L, 19L), timestamps(eventDao.getUserFeed(2L, 0, 20, 5)));
+        assertEquals(List.of(3L, 4L), timestamps(eventDao.getUserFeed(2L, 3, 5, 10)));
+        assertEquals(60, eventDao.getUserFeed(2L, 0, 100, 100).size());
+        assertTrue(eventDao.getUserFeed(2L, 100, 200, 10).isEmpty());
+
+        eventDao.addEvent(Event.builder()
+                .userId(2L)
+                .eventType(EventType.LIKE)
+                .operation(Operation.REMOVE)
+                .timestamp(61L)
+                .entityId(60L)
+                .build());
+        assertEquals(List.of(60L, 61L), timestamps(eventDao.getUserFeed(2L, Long.MIN_VALUE, Long.MAX_VALUE, 2)));
+        assertEquals(1, eventDao.getUserFeed(1L, Long.MIN_VALUE, Long.MAX_VALUE, 10).size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getUserFeedPage() {
+        for (int i = 0; i < 3; i++) {
+            eventDao.addEvent(Event.builder()
+                    .userId(1L)
+                    .eventType(EventType.LIKE)
+                    .operation(Operation.ADD)
+                    .timestamp(Instant.now().toEpochMilli())
+                    .entityId(i + 1L)
+                    .build());
+        }
+        List<Event> firstPage = eventDao.getUserFeed(1L, 0, 2);
+        assertEquals(2, firstPage.size());
+        assertEquals(1, firstPage.get(0).getEventId());
+        List<Event> secondPage = eventDao.getUserFeed(1L, firstPage.get(1).getEventId(), 2);
+        assertEquals(2, secondPage.size());
+        assertEquals(3, secondPage.get(0).getEventId());
+        assertEquals(0, eventDao.getUserFeed(2L, 0, 2).size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getFriendsFeed() {
+        userDao.addUser(User.builder().name("name3").login("login3")
+                .email("email3@mail.com").birthday(LocalDate.of(1998,1,2)).build());
+        userDao.addFriend(1L, 2L);
+        eventDao.addEvent(likeEvent(2L, 10L));
+        eventDao.addEvent(likeEvent(3L, 11L));
+        List<Event> events = eventDao.getFriendsFeed(1L, 10);
+        assertEquals(List.of(10L), timestamps(events));
+        assertNotNull(events.get(0).getEventId());
+
+        eventDao.addEvent(likeEvent(2L, 12L));
+        events = eventDao.getFriendsFeed(1L, 10);
+        assertEquals(List.of(10L, 12L), timestamps(events));
+        assertNotNull(events.get(1).getEventId());
+        assertEquals(List.of(12L), timestamps(eventDao.getFriendsFeed(1L, 1)));
+
+        userDao.addFriend(1L, 3L);
+        assertEquals(List.of(10L, 11L, 12L), timestamps(eventDao.getFriendsFeed(1L, 10)));
+        userDao.deleteFriend(1L, 2L);
+        assertEquals(List.of(11L), timestamps(eventDao.getFriendsFeed(1L, 10)));
+        assertTrue(eventDao.getFriendsFeed(2L, 10).isEmpty());
+    }
+
+    @Test
+    @DirtiesContext
+    public void friendsFeedMergesEventsOfHighDegreeUsersOnRead() {
+        userDao.addFriend(1L, 2L);
+        FriendTimeline timeline = new FriendTimeline(friendshipIndex, 10, 0, 10);
+        Event beforeWarmUp = likeEvent(2L, 1L);
+        beforeWarmUp.setEventId(1L);
+        timeline.publish(List.of(beforeWarmUp));
+        assertTrue(timeline.read(1L, 10).isEmpty());
+        assertEquals(List.of(1L), timestamps(timeline.warmAndRead(1L, 10, userId -> List.of(beforeWarmUp))));
+
+        Event afterWarmUp = likeEvent(2L, 2L);
+        afterWarmUp.setEventId(2L);
+        timeline.publish(List.of(afterWarmUp));
+        assertEquals(List.of(1L, 2L), timestamps(timeline.read(1L, 10).orElseThrow()));
+        assertEquals(List.of(2L), timestamps(timeline.read(1L, 1).orElseThrow()));
+    }
+
+    @Test
+    @DirtiesContext
+    public void friendsFeedIsNotCachedWhenEventsArePublishedDuringWarmUp() {
+        userDao.addFriend(1L, 2L);
+        FriendTimeline timeline = new FriendTimeline(friendshipIndex, 10, 10, 10);
+        Event loaded = likeEvent(2L, 1L);
+        List<Event> page = timeline.warmAndRead(1L, 10, userId -> {
+            timeline.publish(List.of(likeEvent(2L, 2L)));
+            return List.of(loaded);
+        });
+        assertEquals(List.of(1L), timestamps(page));
+        assertTrue(timeline.read(1L, 10).isEmpty());
+
+        assertEquals(List.of(1L), timestamps(timeline.warmAndRead(1L, 10, userId -> List.of(loaded))));
+        timeline.publish(List.of(likeEvent(2L, 3L)));
+        assertEquals(List.of(1L, 3L), timestamps(timeline.read(1L, 10).orElseThrow()));
+    }
+
+    @Test
+    @DirtiesContext
+    public void friendsFeedSkipsEventsPublishedAfterTheyWereLoaded() {
+        userDao.addFriend(1L, 2L);
+        FriendTimeline timeline = new FriendTimeline(friendshipIndex, 10, 10, 10);
+        Event committed = likeEvent(2L, 1L);
+        committed.setEventId(5L);
+        assertEquals(List.of(1L), timestamps(timeline.warmAndRead(1L, 10, userId -> List.of(committed))));
+        timeline.publish(List.of(committed));
+        assertEquals(List.of(1L), timestamps(timeline.read(1L, 10).orElseThrow()));
+    }
+
+    private static Event likeEvent(long userId, long timestamp) {
+        return Event.builder()
+                .userId(userId)
+                .eventType(EventType.LIKE)
+                .operation(Operation.ADD)
+                .timestamp(timestamp)
+                .entityId(1L)
+                .build();
+    }
+
+    private static List<Long> timestamps(List<Event> events) {
+        return events.stream()
+                .map(Event::getTimestamp)
+                .collect(Collectors.toList());
+    }
 }
@@ -6,25 +6,42 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.yandex.practicum.filmorate.entity.film.Director;
 import ru.yandex.practicum.filmorate.entity.film.Film;
 import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
+import ru.yandex.practicum.filmorate.entity.film.Genre;
 import ru.yandex.practicum.filmorate.entity.film.Mpa;
 import ru.yandex.practicum.filmorate.entity.user.User;
+import ru.yandex.practicum.filmorate.metrics.StatementRecorder;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
+@Import(StatementRecorder.class)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class FilmDaoTest {
 
     private final FilmDao filmDao;
     private final UserDao userDao;
+    private final DirectorDao directorDao;
+    private final StatementRecorder statementRecorder;
 
     @BeforeEach
     public void beforeEach() {
@@ -99,6 +116,18 @@ public class FilmDaoTest {
         assertEquals(2, films.size());
     }
 
+    @Test
+    @DirtiesContext
+    public void getFilmsPage() {
+        List<Film> firstPage = filmDao.getFilms(0, 1);
+        assertEquals(1, firstPage.size());
+        assertEquals(1, firstPage.get(0).getId());
+        List<Film> secondPage = filmDao.getFilms(1, 5);
+        assertEquals(1, secondPage.size());
+        assertEquals(2, secondPage.get(0).getId());
+        assertTrue(filmDao.getFilms(2, 5).isEmpty());
+    }
+
     @Test
     @DirtiesContext
     public void updateFilm() {
@@ -132,6 +161,52 @@ public class FilmDaoTest {
         assertEquals(2, popularFilms1.get(1).getId());
     }
 
+    @Test
+    @DirtiesContext
+    public void getPopularFilmsByGenreAndYear() {
+        Long id = filmDao.addFilm(Film.builder()
+                .name("name3")
+                .description("description3")
+                .releaseDate(LocalDate.of(2020, 6, 7))
+                .duration(90)
+                .mpa(Mpa.builder().id(3).build())
+                .genres(Set.of(Genre.builder().id(1).build()))
+                .build());
+        filmDao.addLike(2L, 1L);
+        filmDao.addLike(id, 1L);
+        filmDao.addLike(id, 2L);
+
+        List<Film> byYear = filmDao.getPopularFilmsByGenreAndYear(null, 2020, 10);
+        assertEquals(2, byYear.size());
+        assertEquals(id, byYear.get(0).getId());
+        assertEquals(2, byYear.get(0).getRate());
+        assertEquals(2, byYear.get(1).getId());
+
+        List<Film> byGenre = filmDao.getPopularFilmsByGenreAndYear(1, null, 10);
+        assertEquals(1, byGenre.size());
+        assertEquals(id, byGenre.get(0).getId());
+
+        assertEquals(1, filmDao.getPopularFilmsByGenreAndYear(1, 2020, 10).size());
+        assertTrue(filmDao.getPopularFilmsByGenreAndYear(1, 2000, 10).isEmpty());
+
+        filmDao.updateFilm(Film.builder()
+                .id(id)
+                .name("name3")
+                .description("description3")
+                .releaseDate(LocalDate.of(2000, 6, 7))
+                .duration(90)
+                .mpa(Mpa.builder().id(3).build())
+                .genres(Set.of(Genre.builder().id(2).build()))
+                .build());
+        assertTrue(filmDao.getPopularFilmsByGenreAndYear(1, null, 10).isEmpty());
+        assertEquals(id, filmDao.getPopularFilmsByGenreAndYear(2, 2000, 10).get(0).getId());
+        assertEquals(id, filmDao.getPopularFilms(1).get(0).getId());
+
+        filmDao.deleteFilmByFilmId(id);
+        assertEquals(2, filmDao.getPopularFilms(1).get(0).getId());
+        assertTrue(filmDao.getPopularFilmsByGenreAndYear(2, 2000, 10).isEmpty());
+    }
+
     @Test
     @DirtiesContext
     public void addLike() {
@@ -170,6 +245,71 @@ public class FilmDaoTest {
         assertEquals(1, popularFilms3.get(0).getRate());
     }
 
+    @Test
+    @DirtiesContext
+    public void addLikesDeduplicatesAndAggregatesRate() {
+        filmDao.addLike(1L, 1L);
+        List<FilmLikes> added = filmDao.addLikes(List.of(
+                new FilmLikes(1L, 1L),
+                new FilmLikes(2L, 1L),
+                new FilmLikes(2L, 1L),
+                new FilmLikes(2L, 2L)));
+        assertEquals(List.of(new FilmLikes(2L, 1L), new FilmLikes(2L, 2L)), added);
+        assertEquals(1, filmDao.getFilmById(1L).orElseThrow().getRate());
+        assertEquals(2, filmDao.getFilmById(2L).orElseThrow().getRate());
+        assertEquals(List.of(2L, 1L), ids(filmDao.getPopularFilms(10)));
+        assertEquals(List.of(2L), ids(filmDao.getFilmsLikedByUser(2L)));
+
+        assertThrows(DataAccessException.class, () -> filmDao.addLikes(List.of(
+                new FilmLikes(1L, 2L),
+                new FilmLikes(99L, 2L))));
+        assertEquals(1, filmDao.getFilmById(1L).orElseThrow().getRate());
+        assertFalse(filmDao.isFilmLikeExist(1L, 2L));
+    }
+
+    @Test
+    @DirtiesContext
+    public void repeatedLikesDoNotChangeRate() {
+        assertTrue(filmDao.addLike(1L, 1L));
+        assertFalse(filmDao.addLike(1L, 1L));
+        assertFalse(filmDao.deleteLike(1L, 2L));
+        assertEquals(1, filmDao.getFilmById(1L).orElseThrow().getRate());
+        assertTrue(filmDao.deleteLike(1L, 1L));
+        assertFalse(filmDao.deleteLike(1L, 1L));
+        assertEquals(0, filmDao.getFilmById(1L).orElseThrow().getRate());
+    }
+
+    @Test
+    @DirtiesContext
+    public void concurrentLikesKeepRateConsistent() throws Exception {
+        int users = 20;
+        for (int i = 0; i < users; i++) {
+            userDao.addUser(User.builder()
+                    .email("user" + i + "@mail.com")
+                    .login("user" + i)
+                    .name("user" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (long userId = 1; userId <= users + 2; userId++) {
+            long id = userId;
+            results.add(executor.submit(() -> filmDao.addLike(1L, id)));
+            results.add(executor.submit(() -> filmDao.addLike(1L, id)));
+        }
+        int added = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                added++;
+            }
+        }
+        executor.shutdown();
+        assertEquals(users + 2, added);
+        assertEquals(users + 2, filmDao.getFilmById(1L).orElseThrow().getRate());
+        assertEquals(users + 2, filmDao.findAllFilmLikes().size());
+    }
+
     @Test
     @DirtiesContext
     public void getFilmsLikedByUser() {
@@ -195,6 +335,119 @@ public class FilmDaoTest {
         assertEquals(2, filmLikes.get(1).getUserId());
     }
 
+    @Test
+    @DirtiesContext
+    public void getCommonFilms() {
+        Long id = filmDao.addFilm(Film.builder()
+                .name("name3")
+                .description("description3")
+                .releaseDate(LocalDate.of(2010, 1, 1))
+                .duration(90)
+                .mpa(Mpa.builder().id(1).build())
+                .build());
+        Long userId = userDao.addUser(User.builder()
+                .email("name3@mail.com")
+                .login("login3")
+                .name("name3")
+                .birthday(LocalDate.of(1995, 5, 5))
+                .build());
+        assertTrue(filmDao.getCommonFilms(1L, 2L).isEmpty());
+        filmDao.addLike(1L, 1L);
+        filmDao.addLike(2L, 1L);
+        filmDao.addLike(id, 1L);
+        filmDao.addLike(2L, 2L);
+        filmDao.addLike(id, 2L);
+        filmDao.addLike(id, userId);
+
+        List<Film> commonFilms = filmDao.getCommonFilms(1L, 2L);
+        assertEquals(2, commonFilms.size());
+        assertEquals(id, commonFilms.get(0).getId());
+        assertEquals(2L, commonFilms.get(1).getId());
+        assertEquals("PG", commonFilms.get(1).getMpa().getName());
+
+        filmDao.deleteLike(2L, 2L);
+        assertEquals(1, filmDao.getCommonFilms(1L, 2L).size());
+        assertEquals(1, filmDao.getCommonFilms(2L, userId).size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getRecommendedFilmIds() {
+        Long id = filmDao.addFilm(Film.builder()
+                .name("name3")
+                .description("description3")
+                .releaseDate(LocalDate.of(2010, 1, 1))
+                .duration(90)
+                .mpa(Mpa.builder().id(1).build())
+                .build());
+        assertTrue(filmDao.getRecommendedFilmIds(1L).isEmpty());
+        filmDao.addLike(1L, 1L);
+        filmDao.addLike(1L, 2L);
+        filmDao.addLike(2L, 2L);
+        filmDao.addLike(id, 2L);
+        assertEquals(List.of(2L, id), filmDao.getRecommendedFilmIds(1L));
+        assertTrue(filmDao.getRecommendedFilmIds(2L).isEmpty());
+
+        filmDao.deleteLike(2L, 2L);
+        assertEquals(List.of(id), filmDao.getRecommendedFilmIds(1L));
+        filmDao.deleteFilmByFilmId(id);
+        assertTrue(filmDao.getRecommendedFilmIds(1L).isEmpty());
+
+        List<Film> films = filmDao.getFilmsByIds(List.of(2L, 1L));
+        assertEquals(2, films.size());
+        assertEquals(2L, films.get(0).getId());
+        assertEquals(1L, films.get(1).getId());
+    }
+
+    @Test
+    @DirtiesContext
+    public void searchFilms() {
+        Long directorId = directorDao.addDirector(Director.builder().name("Christopher Nolan").build());
+        Long id = filmDao.addFilm(Film.builder()
+                .name("Interstellar")
+                .description("description3")
+                .releaseDate(LocalDate.of(2014, 11, 6))
+                .duration(169)
+                .mpa(Mpa.builder().id(3).build())
+                .directors(Set.of(Director.builder().id(directorId).build()))
+                .build());
+        Long otherId = filmDao.addFilm(Film.builder()
+                .name("Nolan documentary")
+                .description("description4")
+                .releaseDate(LocalDate.of(2015, 1, 1))
+                .duration(60)
+                .mpa(Mpa.builder().id(1).build())
+                .build());
+
+        assertEquals(List.of(id), ids(filmDao.searchFilms("stel", true, false)));
+        assertEquals(List.of(2L, 1L), ids(filmDao.searchFilms("na", true, false)));
+        assertEquals(List.of(id), ids(filmDao.searchFilms("nolan", false, true)));
+        assertEquals(List.of(otherId, id), ids(filmDao.searchFilms("nolan", true, true)));
+        assertEquals(ids(filmDao.searchFilmsWithDirectorAndTitle("nolan")),
+                ids(filmDao.searchFilms("nolan", true, true)));
+
+        filmDao.updateFilm(Film.builder()
+                .id(id)
+                .name("Tenet")
+                .description("description3")
+                .releaseDate(LocalDate.of(2020, 8, 26))
+                .duration(150)
+                .mpa(Mpa.builder().id(3).build())
+                .build());
+        assertTrue(filmDao.searchFilms("stel", true, false).isEmpty());
+        assertTrue(filmDao.searchFilms("nolan", false, true).isEmpty());
+        assertEquals(List.of(id), ids(filmDao.searchFilms("tenet", true, true)));
+
+        filmDao.deleteFilmByFilmId(otherId);
+        assertTrue(filmDao.searchFilms("nolan", true, true).isEmpty());
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        List<Long> ids = new ArrayList<>();
+        films.forEach(film -> ids.add(film.getId()));
+        return ids;
+    }
+
     @Test
     @DirtiesContext
     public void deleteFilmById() {
@@ -204,4 +457,238 @@ public class FilmDaoTest {
         assertEquals(1, films.size());
         assertEquals(2L, films.get(0).getId());
     }
+
+    @Test
+    @DirtiesContext
+    public void getFilmsIssuesConstantNumberOfQueries() {
+        Long directorId = directorDao.addDirector(Director.builder().name("director1").build());
+        for (int i = 0; i < 10; i++) {
+            filmDao.addFilm(Film.builder()
+                    .name("film" + i)
+                    .description("description" + i)
+                    .releaseDate(LocalDate.of(2001, 1, 1))
+                    .duration(90)
+                    .mpa(Mpa.builder().id(i % 5 + 1).build())
+                    .genres(Set.of(Genre.builder().id(1).build(), Genre.builder().id(2).build()))
+                    .directors(Set.of(Director.builder().id(directorId).build()))
+                    .build());
+        }
+        filmDao.addLike(3L, 1L);
+        filmDao.addLike(4L, 1L);
+
+        statementRecorder.start();
+        List<Film> films = filmDao.getFilms();
+        assertEquals(12, films.size());
+        assertEquals(3, statementRecorder.stop().size());
+        Film film = films.get(2);
+        assertEquals(2, film.getGenres().size());
+        assertEquals(1, film.getDirectors().size());
+        assertEquals("director1", film.getDirectors().iterator().next().getName());
+        assertNotNull(film.getMpa().getName());
+
+        statementRecorder.start();
+        assertEquals(10, filmDao.getFilmsByDirectorIdForLikes(directorId).size());
+        assertEquals(3, statementRecorder.stop().size());
+
+        statementRecorder.start();
+        assertEquals(12, filmDao.getPopularFilms(20).size());
+        assertEquals(3, statementRecorder.stop().size());
+
+        statementRecorder.start();
+        assertEquals(2, filmDao.getFilmsLikedByUser(1L).size());
+        assertEquals(3, statementRecorder.stop().size());
+
+        statementRecorder.start();
+        assertEquals(10, filmDao.searchFilmsWithTitle("film").size());
+        assertEquals(3, statementRecorder.stop().size());
+
+        statementRecorder.start();
+        assertTrue(filmDao.getFilmsLikedByUser(2L).isEmpty());
+        assertEquals(1, statementRecorder.stop().size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getFilmsHydratesInBoundedChunks() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            films.add(Film.builder()
+                    .name("bulk" + i)
+                    .description("description" + i)
+                    .releaseDate(LocalDate.of(2001, 1, 1))
+                    .duration(90)
+                    .mpa(Mpa.builder().id(1).build())
+                    .genres(Set.of(Genre.builder().id(2).build()))
+                    .build());
+        }
+        filmDao.addFilms(films);
+
+        statementRecorder.start();
+        List<Film> allFilms = filmDao.getFilms();
+        assertEquals(5, statementRecorder.stop().size());
+        assertEquals(602, allFilms.size());
+        assertTrue(allFilms.stream()
+                .filter(film -> film.getName().startsWith("bulk"))
+                .allMatch(film -> genreIds(film).equals(Set.of(2))));
+    }
+
+    @Test
+    @DirtiesContext
+    public void streamFilmsLoadsKeysetChunks() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            films.add(Film.builder()
+                    .name("stream" + i)
+                    .description("description" + i)
+                    .releaseDate(LocalDate.of(2001, 1, 1))
+                    .duration(90)
+                    .mpa(Mpa.builder().id(1).build())
+                    .genres(Set.of(Genre.builder().id(1).build()))
+                    .build());
+        }
+        filmDao.addFilms(films);
+
+        List<Long> streamedIds = new ArrayList<>();
+        statementRecorder.start();
+        filmDao.streamFilms(film -> {
+            assertNotNull(film.getMpa().getName());
+            streamedIds.add(film.getId());
+        });
+        List<String> statements = statementRecorder.stop();
+        assertEquals(602, streamedIds.size());
+        assertEquals(1L, streamedIds.get(0));
+        assertEquals(602L, streamedIds.get(601));
+        assertEquals(6, statements.size());
+        assertEquals(2, statements.stream().filter(sql -> sql.contains("LIMIT")).count());
+    }
+
+    @Test
+    @DirtiesContext
+    public void addFilmsInsertsChunkWithAssociations() {
+        Long directorId = directorDao.addDirector(Director.builder().name("director1").build());
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            films.add(Film.builder()
+                    .name("bulk" + i)
+                    .description("description" + i)
+                    .releaseDate(LocalDate.of(2010 + i, 1, 1))
+                    .duration(90)
+                    .mpa(Mpa.builder().id(1).build())
+                    .genres(Set.of(Genre.builder().id(i + 1).build()))
+                    .directors(Set.of(Director.builder().id(directorId).build()))
+                    .build());
+        }
+        statementRecorder.start();
+        List<Long> ids = filmDao.addFilms(films);
+        assertEquals(3, statementRecorder.stop().size());
+        assertEquals(List.of(3L, 4L, 5L), ids);
+        Film film = filmDao.getFilmById(5L).orElseThrow();
+        assertEquals("bulk2", film.getName());
+        assertEquals(Set.of(3), genreIds(film));
+        assertEquals(directorId, film.getDirectors().iterator().next().getId());
+        assertEquals(List.of(4L), ids(filmDao.getPopularFilmsByGenreAndYear(2, 2011, 10)));
+        assertEquals(3, filmDao.searchFilms("bulk", true, false).size());
+        assertEquals(3, filmDao.searchFilms("director1", false, true).size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void saveFilmWritesAssociationsInBatches() {
+        Long firstDirectorId = directorDao.addDirector(Director.builder().name("director1").build());
+        Long secondDirectorId = directorDao.addDirector(Director.builder().name("director2").build());
+        Film film = Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2001, 1, 1))
+                .duration(90)
+                .mpa(Mpa.builder().id(1).build())
+                .genres(Set.of(Genre.builder().id(1).build(), Genre.builder().id(2).build(),
+                        Genre.builder().id(3).build(), Genre.builder().id(99).build()))
+                .directors(Set.of(Director.builder().id(firstDirectorId).build(),
+                        Director.builder().id(secondDirectorId).build()))
+                .build();
+
+        statementRecorder.start();
+        Long id = filmDao.addFilm(film);
+        assertEquals(3, statementRecorder.stop().size());
+        assertEquals(Set.of(1, 2, 3), genreIds(filmDao.getFilmById(id).orElseThrow()));
+
+        film.setId(id);
+        film.setGenres(Set.of(Genre.builder().id(2).build(), Genre.builder().id(3).build(),
+                Genre.builder().id(4).build()));
+        film.setDirectors(Set.of(Director.builder().id(secondDirectorId).build()));
+        statementRecorder.start();
+        filmDao.updateFilm(film);
+        assertEquals(6, statementRecorder.stop().size());
+        Film updated = filmDao.getFilmById(id).orElseThrow();
+        assertEquals(Set.of(2, 3, 4), genreIds(updated));
+        assertEquals(1, updated.getDirectors().size());
+        assertEquals(secondDirectorId, updated.getDirectors().iterator().next().getId());
+
+        statementRecorder.start();
+        filmDao.updateFilm(film);
+        assertEquals(3, statementRecorder.stop().size());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getFilmByIdDoesNotQueryReferenceTables() {
+        Long directorId = directorDao.addDirector(Director.builder().name("director1").build());
+        Long id = filmDao.addFilm(Film.builder()
+                .name("film")
+                .description("description")
+                .releaseDate(LocalDate.of(2001, 1, 1))
+                .duration(90)
+                .mpa(Mpa.builder().id(4).build())
+                .genres(Set.of(Genre.builder().id(2).build()))
+                .directors(Set.of(Director.builder().id(directorId).build()))
+                .build());
+
+        statementRecorder.start();
+        Film film = filmDao.getFilmById(id).orElseThrow();
+        assertEquals(3, statementRecorder.stop().size());
+        assertEquals("R", film.getMpa().getName());
+        assertEquals(2, film.getGenres().iterator().next().getId());
+        assertNotNull(film.getGenres().iterator().next().getName());
+        assertEquals("director1", film.getDirectors().iterator().next().getName());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getFilmByIdIsLoadedOncePerRequest() {
+        userDao.addUser(User.builder()
+                .email("user@mail.ru")
+                .login("login")
+                .name("name")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .build());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            statementRecorder.start();
+            Film film = filmDao.getFilmById(1).orElseThrow();
+            assertSame(film, filmDao.getFilmById(1).orElseThrow());
+            assertTrue(userDao.getUserById(1).isPresent());
+            assertTrue(userDao.getUserById(1).isPresent());
+            assertEquals(4, statementRecorder.stop().size());
+
+            int rate = film.getRate();
+            filmDao.addLike(1, 1);
+            statementRecorder.start();
+            assertEquals(rate + 1, filmDao.getFilmById(1).orElseThrow().getRate());
+            assertEquals(3, statementRecorder.stop().size());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        statementRecorder.start();
+        filmDao.getFilmById(1);
+        filmDao.getFilmById(1);
+        assertEquals(6, statementRecorder.stop().size());
+    }
+
+    private static Set<Integer> genreIds(Film film) {
+        return film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+    }
 }
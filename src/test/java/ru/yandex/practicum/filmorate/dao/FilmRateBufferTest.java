@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.dao.impl.FilmRateBuffer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class FilmRateBufferTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void failedFlushKeepsDeltas() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        FilmRateBuffer buffer = new FilmRateBuffer(jdbcTemplate, true);
+        buffer.changeRate(1L, 1);
+        buffer.changeRate(1L, 1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, buffer::flush);
+
+        reset(jdbcTemplate);
+        buffer.changeRate(1L, 1);
+        buffer.flush();
+        buffer.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((List<Object[]> rows) -> {
+            assertEquals(1, rows.size());
+            assertArrayEquals(new Object[]{3L, 1L}, rows.get(0));
+            return true;
+        }));
+    }
+}
@@ -0,0 +1,208 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.dao.impl.*;
+import ru.yandex.practicum.filmorate.entity.Event;
+import ru.yandex.practicum.filmorate.entity.EventType;
+import ru.yandex.practicum.filmorate.entity.Operation;
+import ru.yandex.practicum.filmorate.entity.Review;
+import ru.yandex.practicum.filmorate.entity.film.Director;
+import ru.yandex.practicum.filmorate.entity.film.Film;
+import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
+import ru.yandex.practicum.filmorate.entity.film.Mpa;
+import ru.yandex.practicum.filmorate.entity.user.User;
+import ru.yandex.practicum.filmorate.metrics.StatementRecorder;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Import(StatementRecorder.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class QueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    private final FilmDaoImpl filmDao;
+    private final UserDaoImpl userDao;
+    private final ReviewDaoImpl reviewDao;
+    private final EventDaoImpl eventDao;
+    private final DirectorDaoImpl directorDao;
+    private final GenreDaoImpl genreDao;
+    private final MpaDaoImpl mpaDao;
+    private final FilmRateBuffer filmRateBuffer;
+    private final FriendTimeline friendTimeline;
+    private final JdbcTemplate jdbcTemplate;
+    private final StatementRecorder statementRecorder;
+
+    @BeforeEach
+    public void beforeEach() {
+        for (int i = 1; i <= 3; i++) {
+            userDao.addUser(User.builder().email("user" + i + "@mail.com").login("login" + i).name("name" + i)
+                    .birthday(LocalDate.of(1990, 1, i)).build());
+        }
+        directorDao.addDirector(Director.builder().name("director").build());
+        for (int i = 1; i <= 3; i++) {
+            filmDao.addFilm(Film.builder().name("film" + i).description("description" + i)
+                    .releaseDate(LocalDate.of(2000 + i, 1, 1)).duration(90).rate(i)
+                    .mpa(Mpa.builder().id(1).build())
+                    .directors(Set.of(Director.builder().id(1L).build()))
+                    .build());
+        }
+        filmDao.addLike(1L, 1L);
+        filmDao.addLike(2L, 2L);
+        userDao.addFriend(1L, 2L);
+        reviewDao.addReview(Review.builder().userId(1L).filmId(1L).isPositive(true).content("content").build());
+    }
+
+    @Test
+    @DirtiesContext
+    public void filmQueriesUseIndexes() {
+        assertIndexed(() -> filmDao.getFilmById(1L));
+        assertIndexed(() -> filmDao.getFilms(1L, 10));
+        assertIndexed(() -> filmDao.getFilmsByIds(List.of(1L, 2L)));
+        assertIndexed(() -> filmDao.getFilmsByDirectorIdForYear(1L));
+        assertIndexed(() -> filmDao.getFilmsByDirectorIdForLikes(1L));
+        assertIndexed(() -> filmDao.getCommonFilms(1L, 1L));
+        assertIndexed(() -> filmDao.isFilmLikeExist(1L, 1L));
+        assertIndexed(() -> filmDao.addLike(3L, 1L));
+        assertIndexed(() -> filmDao.deleteLike(3L, 1L));
+        assertIndexed(() -> filmDao.updateFilm(filmDao.getFilmById(2L).orElseThrow()));
+        assertIndexed(() -> filmDao.deleteFilmByFilmId(3L));
+        assertUsesIndex("FILM_LIKES_USER_IDX", () -> filmDao.getFilmsLikedByUser(1L));
+        assertUsesIndex("FILM_LIKES_USER_IDX", () -> filmDao.streamFilmsLikedByUser(1L, film -> {
+        }));
+        assertIndexed(() -> filmDao.streamFilms(film -> {
+        }));
+        assertIndexed(() -> filmDao.getPopularFilms(10));
+        assertIndexed(() -> filmDao.getPopularFilmsByGenreAndYear(null, 2001, 10));
+        assertIndexed(() -> filmDao.addFilms(List.of(Film.builder().name("film4").description("description4")
+                .releaseDate(LocalDate.of(2004, 1, 1)).duration(90)
+                .mpa(Mpa.builder().id(1).build())
+                .directors(Set.of(Director.builder().id(1L).build()))
+                .build())));
+        assertIndexed(() -> filmDao.addLikes(List.of(new FilmLikes(2L, 1L), new FilmLikes(2L, 3L))));
+        assertIndexed(() -> filmRateBuffer.changeRate(1L, 1L));
+        assertIndexed(() -> filmRateBuffer.changeRates(Map.of(1L, 1L, 2L, -1L)));
+        assertScans("films", () -> filmDao.getFilms());
+        assertScans("films", () -> filmDao.searchFilmsWithTitle("film"));
+        assertScans("films", () -> filmDao.searchFilmsWithDirector("director"));
+        assertScans("films", () -> filmDao.searchFilmsWithDirectorAndTitle("film"));
+    }
+
+    @Test
+    @DirtiesContext
+    public void userQueriesUseIndexes() {
+        assertIndexed(() -> userDao.getUserById(1L));
+        assertIndexed(() -> userDao.getUsers(1L, 10));
+        assertIndexed(() -> userDao.streamUsers(user -> {
+        }));
+        assertIndexed(() -> userDao.addUsers(List.of(User.builder().email("user4@mail.com").login("login4")
+                .name("name4").birthday(LocalDate.of(1990, 1, 4)).build())));
+        assertScans("users", () -> userDao.getUsers());
+        assertIndexed(() -> userDao.updateUser(userDao.getUserById(3L).orElseThrow()));
+        assertIndexed(() -> userDao.addFriend(2L, 1L));
+        assertIndexed(() -> userDao.getUserFriends(1L));
+        userDao.addFriend(3L, 2L);
+        assertIndexed(() -> userDao.getCommonFriends(1L, 3L));
+        assertIndexed(() -> userDao.getFriendSuggestions(3L, 10));
+        assertIndexed(() -> userDao.deleteFriend(2L, 1L));
+        assertIndexed(() -> userDao.deleteUserById(3L));
+    }
+
+    @Test
+    @DirtiesContext
+    public void reviewQueriesUseIndexes() {
+        assertIndexed(() -> reviewDao.getReviewById(1L));
+        assertIndexed(() -> reviewDao.getReviews(10));
+        assertIndexed(() -> reviewDao.addReview(Review.builder().userId(2L).filmId(1L).isPositive(false)
+                .content("content").build()));
+        assertIndexed(() -> reviewDao.getReviewsByFilmId(1L, 10));
+        assertIndexed(() -> reviewDao.addLike(1L, 2L));
+        assertIndexed(() -> reviewDao.addDislike(1L, 2L));
+        assertIndexed(() -> reviewDao.deleteDislike(1L, 2L));
+        assertIndexed(() -> reviewDao.updateReview(reviewDao.getReviewById(1L).orElseThrow()));
+        assertIndexed(() -> reviewDao.deleteReview(1L));
+    }
+
+    @Test
+    @DirtiesContext
+    public void eventQueriesUseIndexes() {
+        eventDao.addEvent(Event.builder().userId(2L).eventType(EventType.LIKE).operation(Operation.ADD)
+                .timestamp(1000L).entityId(1L).build());
+        assertUsesIndex("EVENTS_USER_TIMESTAMP_IDX", () -> eventDao.getUserFeed(2L, 0L, Long.MAX_VALUE, 1000));
+        assertIndexed(() -> eventDao.getUserFeed(2L));
+        assertIndexed(() -> eventDao.getUserFeed(2L, 0L, 10));
+        friendTimeline.invalidate(List.of(1L));
+        assertIndexed(() -> eventDao.getFriendsFeed(1L, 10));
+    }
+
+    @Test
+    @DirtiesContext
+    public void referenceQueriesUseIndexes() {
+        assertIndexed(() -> directorDao.getDirectorById(1L));
+        assertIndexed(() -> directorDao.updateDirector(Director.builder().id(1L).name("director").build()));
+        assertIndexed(() -> directorDao.deleteDirector(1L));
+        assertIndexed(() -> genreDao.getGenreById(1));
+        assertIndexed(() -> mpaDao.getMpaById(1));
+    }
+
+    @Test
+    @DirtiesContext
+    public void secondaryIndexesAreReadByQueries() {
+        assertEquals(Set.of("FILM_LIKES_USER_IDX", "EVENTS_USER_TIMESTAMP_IDX"), new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME LIKE '%IDX'", String.class)));
+        eventDao.addEvent(Event.builder().userId(2L).eventType(EventType.LIKE).operation(Operation.ADD)
+                .timestamp(1000L).entityId(1L).build());
+        assertUsesIndex("FILM_LIKES_USER_IDX", () -> filmDao.getFilmsLikedByUser(1L));
+        assertUsesIndex("EVENTS_USER_TIMESTAMP_IDX", () -> eventDao.getUserFeed(2L, 0L, Long.MAX_VALUE, 1000));
+    }
+
+    private void assertScans(String table, Runnable call) {
+        List<String> plans = explain(call);
+        for (String plan : plans) {
+            Matcher matcher = TABLE_SCAN.matcher(plan);
+            while (matcher.find()) {
+                assertEquals(table, matcher.group(1), plan);
+            }
+        }
+        assertTrue(plans.stream().anyMatch(plan -> plan.contains("PUBLIC." + table + ".tableScan")), table);
+    }
+
+    private void assertIndexed(Runnable call) {
+        for (String plan : explain(call)) {
+            assertFalse(plan.contains(".tableScan"), plan);
+        }
+    }
+
+    private void assertUsesIndex(String index, Runnable call) {
+        assertTrue(explain(call).stream().anyMatch(plan -> plan.contains("PUBLIC." + index)), index);
+    }
+
+    private List<String> explain(Runnable call) {
+        statementRecorder.start();
+        call.run();
+        List<String> statements = statementRecorder.stop();
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            if (!sql.stripLeading().toUpperCase(Locale.ROOT).startsWith("INSERT INTO \"EVENTS\"")) {
+                plans.add(jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class));
+            }
+        }
+        assertFalse(plans.isEmpty(), "Запросы к базе данных не выполнялись");
+        return plans;
+    }
+}
@@ -14,6 +14,7 @@ import ru.yandex.practicum.filmorate.entity.user.User;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -149,4 +150,47 @@ public class ReviewDaoTest {
         assertEquals(1, review.get().getReviewId());
         assertEquals(0, review.get().getUseful());
     }
+
+    @Test
+    @DirtiesContext
+    public void reactionsAreCountedFromPreviousState() {
+        assertTrue(reviewDao.addLike(1L, 2L));
+        assertTrue(reviewDao.addLike(1L, 2L));
+        assertEquals(1, reviewDao.getReviewById(1L).orElseThrow().getUseful());
+        reviewDao.addDislike(1L, 2L);
+        assertEquals(-1, reviewDao.getReviewById(1L).orElseThrow().getUseful());
+        reviewDao.deleteLike(1L, 2L);
+        assertEquals(-1, reviewDao.getReviewById(1L).orElseThrow().getUseful());
+        reviewDao.deleteDislike(1L, 2L);
+        assertEquals(0, reviewDao.getReviewById(1L).orElseThrow().getUseful());
+        assertFalse(reviewDao.addLike(99L, 2L));
+        assertFalse(reviewDao.deleteDislike(99L, 2L));
+    }
+
+    @Test
+    @DirtiesContext
+    public void reviewsAreRankedByUsefulness() {
+        reviewDao.addReview(Review.builder().userId(1L).filmId(1L).isPositive(true).content("content3").build());
+        reviewDao.addLike(3L, 2L);
+        reviewDao.addDislike(1L, 2L);
+        assertEquals(List.of(3L, 2L, 1L), ids(reviewDao.getReviews(10)));
+        assertEquals(List.of(3L, 2L), ids(reviewDao.getReviewsByFilmId(1L, 10)));
+        assertEquals(List.of(3L), ids(reviewDao.getReviewsByFilmId(1L, 1)));
+
+        reviewDao.deleteLike(3L, 2L);
+        assertEquals(List.of(2L, 3L), ids(reviewDao.getReviewsByFilmId(1L, 10)));
+
+        userDao.deleteUserById(2L);
+        assertEquals(List.of(1L, 3L), ids(reviewDao.getReviews(10)));
+        assertEquals(0, reviewDao.getReviewById(1L).orElseThrow().getUseful());
+        filmDao.deleteFilmByFilmId(1L);
+        assertEquals(List.of(1L), ids(reviewDao.getReviews(10)));
+        assertTrue(reviewDao.getReviewsByFilmId(1L, 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<Review> reviews) {
+        return reviews.stream()
+                .map(Review::getReviewId)
+                .collect(Collectors.toList());
+    }
 }
@@ -7,12 +7,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.dao.impl.FriendshipIndex;
 import ru.yandex.practicum.filmorate.entity.user.User;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -22,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.*;
 public class UserDaoTest {
 
     private final UserDao userDao;
+    private final FriendshipIndex friendshipIndex;
 
     @BeforeEach
     public void beforeEach() {
@@ -61,6 +67,24 @@ public class UserDaoTest {
         assertTrue(getFakeUser.isEmpty());
     }
 
+    @Test
+    @DirtiesContext
+    public void addUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 10; i < 15; i++) {
+            users.add(User.builder()
+                    .email("name" + i + "@mail.com")
+                    .login("login" + i)
+                    .name("name" + i)
+                    .birthday(LocalDate.of(2000, 6, 27))
+                    .build());
+        }
+        List<Long> ids = userDao.addUsers(users);
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L), ids);
+        assertEquals("login12", userDao.getUserById(6L).orElseThrow().getLogin());
+        assertEquals(8, userDao.getUsers().size());
+    }
+
     @Test
     @DirtiesContext
     public void addUser() {
@@ -139,6 +163,87 @@ public class UserDaoTest {
         assertEquals(1, friendsUser1.size());
     }
 
+    @Test
+    @DirtiesContext
+    public void getCommonFriends() {
+        userDao.addUser(User.builder()
+                .email("name4@mail.com")
+                .login("login4")
+                .name("name4")
+                .birthday(LocalDate.of(1995, 5, 5))
+                .build());
+        userDao.addFriend(1L, 2L);
+        userDao.addFriend(1L, 3L);
+        userDao.addFriend(1L, 4L);
+        userDao.addFriend(2L, 1L);
+        userDao.addFriend(2L, 3L);
+        userDao.addFriend(2L, 4L);
+        userDao.addFriend(3L, 4L);
+
+        List<User> commonFriends = userDao.getCommonFriends(1L, 2L);
+        assertEquals(2, commonFriends.size());
+        assertEquals(3L, commonFriends.get(0).getId());
+        assertEquals(4L, commonFriends.get(1).getId());
+        assertEquals("name3", commonFriends.get(0).getName());
+        assertEquals(List.of(4L), userDao.getCommonFriends(1L, 3L).stream()
+                .map(User::getId)
+                .collect(Collectors.toList()));
+        assertTrue(userDao.getCommonFriends(3L, 4L).isEmpty());
+    }
+
+    @Test
+    @DirtiesContext
+    public void friendListsFollowFriendshipChanges() {
+        userDao.addFriend(1L, 2L);
+        userDao.addFriend(1L, 3L);
+        userDao.addFriend(2L, 3L);
+        userDao.addFriend(3L, 1L);
+        assertEquals(List.of(2L, 3L), ids(userDao.getUserFriends(1L)));
+        assertEquals(List.of(3L), ids(userDao.getUserFriends(2L)));
+
+        userDao.deleteFriend(3L, 1L);
+        assertEquals(List.of(2L), ids(userDao.getUserFriends(1L)));
+        assertTrue(userDao.getUserFriends(3L).isEmpty());
+
+        userDao.addFriend(1L, 3L);
+        userDao.deleteUserById(3L);
+        assertEquals(List.of(2L), ids(userDao.getUserFriends(1L)));
+        assertTrue(userDao.getUserFriends(2L).isEmpty());
+        assertTrue(userDao.getCommonFriends(1L, 2L).isEmpty());
+    }
+
+    @Test
+    @DirtiesContext
+    public void getFriendSuggestions() {
+        for (int i = 4; i <= 6; i++) {
+            userDao.addUser(User.builder()
+                    .email("name" + i + "@mail.com")
+                    .login("login" + i)
+                    .name("name" + i)
+                    .birthday(LocalDate.of(1995, 5, 5))
+                    .build());
+        }
+        userDao.addFriend(1L, 2L);
+        userDao.addFriend(1L, 3L);
+        userDao.addFriend(2L, 4L);
+        userDao.addFriend(2L, 5L);
+        userDao.addFriend(2L, 6L);
+        userDao.addFriend(3L, 5L);
+        userDao.addFriend(3L, 6L);
+        userDao.addFriend(3L, 1L);
+        userDao.addFriend(2L, 3L);
+
+        assertEquals(Map.of(4L, 1, 5L, 2, 6L, 2), friendshipIndex.countFriendsOfFriends(1L));
+        assertEquals(List.of(5L, 6L, 4L), ids(userDao.getFriendSuggestions(1L, 10)));
+        assertEquals(List.of(5L, 6L), ids(userDao.getFriendSuggestions(1L, 2)));
+        assertEquals(List.of(5L), ids(userDao.getFriendSuggestions(1L, 1)));
+        assertTrue(userDao.getFriendSuggestions(4L, 10).isEmpty());
+
+        userDao.addFriend(1L, 5L);
+        assertEquals(List.of(6L, 4L), ids(userDao.getFriendSuggestions(1L, 10)));
+        assertEquals(Map.of(4L, 1, 6L, 2), friendshipIndex.countFriendsOfFriends(1L));
+    }
+
     @Test
     @DirtiesContext
     public void deleteUserById() {
@@ -147,4 +252,10 @@ public class UserDaoTest {
         assertNotNull(users);
         assertEquals(2, users.size());
     }
+
+    private static List<Long> ids(Collection<User> users) {
+        return users.stream()
+                .map(User::getId)
+                .collect(Collectors.toList());
+    }
 }
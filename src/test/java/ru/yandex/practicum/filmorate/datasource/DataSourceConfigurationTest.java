@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pool-test;DB_CLOSE_DELAY=-1",
+        "filmorate.datasource.pool-size=4",
+        "filmorate.datasource.statement-cache-size=64"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DataSourceConfigurationTest {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    @DirtiesContext
+    public void poolIsSizedAndInstrumented() {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        assertNotNull(hikari);
+        assertEquals(4, hikari.getMaximumPoolSize());
+        assertEquals(4, hikari.getMinimumIdle());
+        assertEquals("64", hikari.getDataSourceProperties().getProperty("QUERY_CACHE_SIZE"));
+        assertEquals("64", jdbcTemplate.queryForObject(
+                "SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'QUERY_CACHE_SIZE'",
+                String.class));
+
+        Gauge max = meterRegistry.find("hikaricp.connections.max").tag("pool", "filmorate").gauge();
+        assertNotNull(max);
+        assertEquals(4, max.value());
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "filmorate").gauge());
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", "filmorate").timer();
+        assertNotNull(acquire);
+        assertTrue(acquire.count() > 0);
+    }
+
+    @Test
+    public void poolSizeFollowsProcessorsAndRequestThreads() {
+        assertEquals(8 * 2 + DataSourceConfiguration.BACKGROUND_WRITERS,
+                DataSourceConfiguration.derivePoolSize(8, 200));
+        assertEquals(4 + DataSourceConfiguration.BACKGROUND_WRITERS,
+                DataSourceConfiguration.derivePoolSize(8, 4));
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SchemaMigratorTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void beforeEach() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:migrations-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    public void migrateAppliesPendingScriptsOnce() {
+        SchemaMigrator migrator = new SchemaMigrator(dataSource);
+
+        assertEquals(3, migrator.migrate());
+        assertEquals(0, migrator.migrate());
+        assertEquals(List.of(1, 2, 3), jdbcTemplate.queryForList(
+                "SELECT VERSION FROM \"schema_history\" ORDER BY VERSION", Integer.class));
+        assertEquals(5, count("mpa"));
+        assertEquals(6, count("genres"));
+        assertEquals(1, indexCount("FILM_LIKES_USER_IDX"));
+        assertEquals(0, indexCount("FILMS_RATE_IDX"));
+    }
+
+    @Test
+    public void migrateKeepsDataOfExistingSchema() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V1__baseline.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        jdbcTemplate.update("INSERT INTO \"users\" (EMAIL, LOGIN, NAME, BIRTHDAY) " +
+                "VALUES ('user@mail.com', 'login', 'name', '1990-01-01')");
+        jdbcTemplate.update("INSERT INTO \"films\" (NAME, DESCRIPTION, RELEASE_DATE, DURATION, RATE, MPA_ID) " +
+                "VALUES ('film', 'description', '2000-01-01', 90, 1, 1)");
+        jdbcTemplate.update("INSERT INTO \"film_likes\" (FILM_ID, USER_ID) VALUES (1, 1)");
+
+        assertEquals(3, new SchemaMigrator(dataSource).migrate());
+        assertEquals(1, count("users"));
+        assertEquals(1, count("films"));
+        assertEquals(1, count("film_likes"));
+        assertEquals(5, count("mpa"));
+        assertEquals(6, count("genres"));
+    }
+
+    @Test
+    public void migrateRejectsChangedScript() {
+        new SchemaMigrator(dataSource).migrate();
+        jdbcTemplate.update("UPDATE \"schema_history\" SET CHECKSUM = CHECKSUM + 1 WHERE VERSION = 2");
+
+        assertThrows(IllegalStateException.class, () -> new SchemaMigrator(dataSource).migrate());
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"" + table + "\"", Integer.class);
+    }
+
+    private int indexCount(String index) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?",
+                Integer.class, index);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.dao.FilmDao;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MetricsTest {
+
+    private final FilmDao filmDao;
+    private final MeterRegistry meterRegistry;
+    private final MockMvc mockMvc;
+
+    @Test
+    @DirtiesContext
+    public void daoCallsAreTimed() {
+        filmDao.getFilms();
+        filmDao.getFilmById(100);
+
+        Timer getFilms = meterRegistry.find(DaoMetricsAspect.QUERY_TIMER)
+                .tags("dao", "FilmDaoImpl", "method", "getFilms", "outcome", "success")
+                .timer();
+        assertNotNull(getFilms);
+        assertEquals(1, getFilms.count());
+        DistributionSummary rows = meterRegistry.find(DaoMetricsAspect.QUERY_ROWS)
+                .tags("dao", "FilmDaoImpl", "method", "getFilmById")
+                .summary();
+        assertNotNull(rows);
+        assertEquals(0, rows.totalAmount());
+    }
+
+    @SneakyThrows
+    @Test
+    @DirtiesContext
+    public void queriesPerRequestAreRecordedPerEndpoint() {
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+
+        DistributionSummary queries = meterRegistry.find(QueriesPerRequestFilter.QUERIES_PER_REQUEST)
+                .tags("method", "GET", "uri", "/films")
+                .summary();
+        assertNotNull(queries);
+        assertEquals(1, queries.count());
+        assertTrue(queries.totalAmount() >= 1);
+        assertNotNull(meterRegistry.find("http.server.requests").tag("uri", "/films").timer());
+    }
+}
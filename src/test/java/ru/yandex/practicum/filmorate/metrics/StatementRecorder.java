@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+@TestComponent
+public class StatementRecorder implements BeanPostProcessor {
+
+    private final List<String> statements = new ArrayList<>();
+    private boolean recording;
+
+    public synchronized void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    public synchronized List<String> stop() {
+        recording = false;
+        List<String> recorded = new ArrayList<>(statements);
+        statements.clear();
+        return recorded;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof RecordingDataSource)) {
+            return new RecordingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+
+    private synchronized void record(String sql) {
+        if (recording) {
+            statements.add(sql);
+        }
+    }
+
+    private class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recordingConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recordingConnection(super.getConnection(username, password));
+        }
+
+        private Connection recordingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                            record((String) args[0]);
+                        }
+                        Object result = invoke(method, connection, args);
+                        if (name.equals("createStatement")) {
+                            return recordingStatement((Statement) result);
+                        }
+                        return result;
+                    });
+        }
+
+        private Statement recordingStatement(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(),
+                    new Class<?>[]{Statement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute") && args != null && args[0] instanceof String) {
+                            record((String) args[0]);
+                        }
+                        return invoke(method, statement, args);
+                    });
+        }
+
+        private Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -153,7 +152,7 @@ public class FilmServiceTest {
 
     @Test
     public void addLike() {
-        doNothing().when(filmDao).addLike(Mockito.anyLong(), Mockito.anyLong());
+        when(filmDao.addLike(Mockito.anyLong(), Mockito.anyLong())).thenReturn(true);
         Optional<Film> optionalFilm = Optional.of(Film.builder().id(1L).build());
         when(userDao.getUserById(Mockito.anyLong())).thenReturn(Optional.empty());
         when(filmDao.getFilmById(Mockito.anyLong())).thenReturn(optionalFilm);
@@ -165,7 +164,7 @@ public class FilmServiceTest {
 
     @Test
     public void deleteLike() {
-        doNothing().when(filmDao).deleteLike(Mockito.anyLong(), Mockito.anyLong());
+        when(filmDao.deleteLike(Mockito.anyLong(), Mockito.anyLong())).thenReturn(true);
         Optional<Film> optionalFilm = Optional.of(Film.builder().id(1L).build());
         when(userDao.getUserById(Mockito.anyLong())).thenReturn(Optional.empty());
         when(filmDao.getFilmById(Mockito.anyLong())).thenReturn(optionalFilm);
@@ -177,11 +176,8 @@ public class FilmServiceTest {
 
     @Test
     public void getCommonFriends() {
-        List<Film> likedFilmsByUser = List.of(Film.builder().id(1L).build(), Film.builder().id(2L).build());
-        List<Film> likedFilmsByFriend = List.of(Film.builder().id(2L).build());
         when(userDao.getUserById(Mockito.anyLong())).thenReturn(Optional.of(User.builder().build()));
-        when(filmDao.getFilmsLikedByUser(1L)).thenReturn(likedFilmsByUser);
-        when(filmDao.getFilmsLikedByUser(2L)).thenReturn(likedFilmsByFriend);
+        when(filmDao.getCommonFilms(1L, 2L)).thenReturn(List.of(Film.builder().id(2L).build()));
         List<Film> commonFilms = filmService.getCommonFilms(1L, 2L);
         assertNotNull(commonFilms);
         assertEquals(1, commonFilms.size());
@@ -9,7 +9,6 @@ import org.mockito.junit.MockitoJUnitRunner;
 import ru.yandex.practicum.filmorate.dao.FilmDao;
 import ru.yandex.practicum.filmorate.dao.UserDao;
 import ru.yandex.practicum.filmorate.entity.film.Film;
-import ru.yandex.practicum.filmorate.entity.film.FilmLikes;
 import ru.yandex.practicum.filmorate.entity.user.User;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 
@@ -150,18 +149,9 @@ public class UserServiceTest {
         User user2 = User.builder()
                 .id(2L)
                 .build();
-        User user3 = User.builder()
-                .id(3L)
-                .build();
-        User user4 = User.builder()
-                .id(4L)
-                .build();
-        Set<User> user1Friends = Set.of(user2, user3, user4);
-        Set<User> user4Friends = Set.of(user1, user2);
         when(userDao.getUserById(Mockito.anyLong())).thenReturn(Optional.of(user1));
         when(userDao.getUserById(Mockito.anyLong())).thenReturn(Optional.of(user2));
-        when(userDao.getUserFriends(1L)).thenReturn(user1Friends);
-        when(userDao.getUserFriends(4L)).thenReturn(user4Friends);
+        when(userDao.getCommonFriends(1L, 4L)).thenReturn(List.of(user2));
         List<User> commonFriends = userService.getCommonFriends(1L, 4L);
         assertNotNull(commonFriends);
         assertEquals(1, commonFriends.size());
@@ -173,18 +163,8 @@ public class UserServiceTest {
 
     @Test
     public void getRecommendedFilms() {
-        List<FilmLikes> filmLikes = List.of(FilmLikes.builder().filmId(1L).userId(1L).build(),
-                FilmLikes.builder().filmId(2L).userId(1L).build(),
-                FilmLikes.builder().filmId(2L).userId(2L).build(),
-                FilmLikes.builder().filmId(3L).userId(2L).build());
-        when(filmDao.findAllFilmLikes()).thenReturn(filmLikes);
-        List<Film> films = List.of(Film.builder().id(1L).build(),
-                Film.builder().id(2L).build(),
-                Film.builder().id(3L).build());
-        when(filmDao.getFilms()).thenReturn(films);
-        List<User> users = List.of(User.builder().id(1L).build(),
-                User.builder().id(2L).build());
-        when(userDao.getUsers()).thenReturn(users);
+        when(filmDao.getRecommendedFilmIds(1L)).thenReturn(List.of(3L));
+        when(filmDao.getFilmsByIds(List.of(3L))).thenReturn(List.of(Film.builder().id(3L).build()));
         when(userDao.getUserById(Mockito.anyLong())).thenReturn(Optional.of(User.builder().id(1L).build()));
         List<Film> recommendedFilms = userService.getRecommendedFilms(1L);
         assertNotNull(recommendedFilms);